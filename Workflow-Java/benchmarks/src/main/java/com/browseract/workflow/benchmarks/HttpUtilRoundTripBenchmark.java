@@ -0,0 +1,111 @@
+package com.browseract.workflow.benchmarks;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.util.HttpTransport;
+import com.browseract.workflow.demo.util.HttpTransportConfig;
+import com.browseract.workflow.demo.util.HttpUtil;
+import com.browseract.workflow.demo.util.OkHttpTransport;
+import com.browseract.workflow.demo.util.UrlConnectionTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpUtil get, post and put round trips against an in-process stub server.
+ * <p>
+ * The single variants run one thread, which reuses one keep-alive connection; the concurrent variants run
+ * 8 threads sharing the transport's connection pool. Run with {@code -prof gc} for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpUtilRoundTripBenchmark {
+
+    @Param({"okhttp", "urlconnection"})
+    private String transport;
+
+    private StubServer server;
+    private HttpTransport previous;
+    private HttpTransport httpTransport;
+    private Map<String, String> headers;
+    private String getTaskUrl;
+    private String runTaskUrl;
+    private String stopTaskUrl;
+    private RunTask.RunTaskRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubServer(Payloads.task(20));
+        previous = HttpUtil.getTransport();
+        HttpTransportConfig config = new HttpTransportConfig();
+        httpTransport = "okhttp".equals(transport) ? new OkHttpTransport(config) : new UrlConnectionTransport(config);
+        HttpUtil.setTransport(httpTransport);
+        headers = Collections.singletonMap("Authorization", "Bearer benchmark");
+        getTaskUrl = server.getBaseUrl() + "/get-task?task_id=70163548713537588";
+        runTaskUrl = server.getBaseUrl() + "/run-task";
+        stopTaskUrl = server.getBaseUrl() + "/stop-task?task_id=70163548713537588";
+        request = Payloads.runTaskRequest(3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        HttpUtil.setTransport(previous);
+        httpTransport.close();
+        server.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public HttpUtil.HttpResult getSingle() {
+        return HttpUtil.get(getTaskUrl, headers);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HttpUtil.HttpResult getConcurrent() {
+        return HttpUtil.get(getTaskUrl, headers);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public HttpUtil.HttpResult postSingle() {
+        return HttpUtil.postJson(runTaskUrl, request, headers);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HttpUtil.HttpResult postConcurrent() {
+        return HttpUtil.postJson(runTaskUrl, request, headers);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public HttpUtil.HttpResult putSingle() {
+        return HttpUtil.put(stopTaskUrl, headers);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HttpUtil.HttpResult putConcurrent() {
+        return HttpUtil.put(stopTaskUrl, headers);
+    }
+}
@@ -0,0 +1,57 @@
+package com.browseract.workflow.benchmarks;
+
+import com.browseract.workflow.demo.RunTask;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative request and answer payloads, shaped like the examples of the API documentation.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static RunTask.RunTaskRequest runTaskRequest(int parameterCount) {
+        RunTask.RunTaskRequest request = new RunTask.RunTaskRequest();
+        request.setWorkflow_id(70163430536345392L);
+        request.setSave_browser_data(true);
+        request.setProfile_id("70160948381327473");
+        request.setCallback_url("https://example.com/callback");
+        List<RunTask.InputParameter> parameters = new ArrayList<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            parameters.add(new RunTask.InputParameter("parameter_" + i, "https://www.example.com/products?page=" + i));
+        }
+        request.setInput_parameters(parameters);
+        return request;
+    }
+
+    /**
+     * A finished get-task answer with the given number of steps.
+     */
+    static byte[] task(int stepCount) {
+        StringBuilder json = new StringBuilder(512 + stepCount * 512);
+        json.append("{\"id\":\"70163548713537588\",\"workflow_id\":\"70163430536345392\",\"status\":\"finished\",")
+                .append("\"live_url_info\":{\"live_url\":\"\",\"width\":1280,\"height\":1100},")
+                .append("\"profile_id\":\"70160948381327473\",\"created_at\":\"2025-09-23T03:43:36.000Z\",")
+                .append("\"finished_at\":\"2025-09-23T03:45:02.000Z\",\"task_failure_info\":null,")
+                .append("\"input_parameters\":\"[{\\\"name\\\":\\\"KeyWord\\\",\\\"value\\\":\\\"AI\\\"}]\",")
+                .append("\"steps\":[");
+        for (int i = 0; i < stepCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(70163548713537600L + i).append("\",\"step\":").append(i + 1)
+                    .append(",\"status\":\"finished\",")
+                    .append("\"evaluation_previous_goal\":\"Success - The page loaded and the search results are visible.\",")
+                    .append("\"step_goal\":\"Extract the product titles, prices and links of the current result page.\",")
+                    .append("\"screenshots_url\":\"https://browseract.s3.amazonaws.com/screenshots/70163548713537588/")
+                    .append(i).append(".png\"}");
+        }
+        json.append("],\"output\":{\"string\":\"[{\\\"title\\\":\\\"Example\\\",\\\"price\\\":\\\"$10\\\"}]\",")
+                .append("\"files\":[\"https://browseract.s3.amazonaws.com/files/70163548713537588/output.csv\"]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
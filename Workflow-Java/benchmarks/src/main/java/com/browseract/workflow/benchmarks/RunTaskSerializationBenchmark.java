@@ -0,0 +1,64 @@
+package com.browseract.workflow.benchmarks;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.RunTaskEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the run-task body, as done by HttpUtil.postJson (shared ObjectMapper),
+ * by WorkflowClient (ObjectWriter bound to the type) and by BulkSubmitter (RunTaskEncoder).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunTaskSerializationBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Param({"1", "10", "100", "1000"})
+    private int parameterCount;
+
+    private RunTask.RunTaskRequest request;
+    private ObjectWriter writer;
+    private RunTaskEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        request = Payloads.runTaskRequest(parameterCount);
+        writer = objectMapper.writerFor(RunTask.RunTaskRequest.class);
+        encoder = new RunTaskEncoder(request);
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] typedWriter() throws JsonProcessingException {
+        return writer.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] templatedEncoder() {
+        return encoder.encode(request.getInput_parameters());
+    }
+}
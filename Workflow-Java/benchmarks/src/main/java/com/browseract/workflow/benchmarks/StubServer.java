@@ -0,0 +1,63 @@
+package com.browseract.workflow.benchmarks;
+
+import com.browseract.workflow.demo.simulator.ApiSimulator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for the workflow API answering every call at once with a fixed payload,
+ * so that the round trip benchmarks measure the client side only.
+ */
+final class StubServer implements AutoCloseable {
+
+    static {
+        ApiSimulator.useNoDelay();
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StubServer(byte[] taskPayload) throws IOException {
+        byte[] status = "{\"status\":\"running\"}".getBytes();
+        byte[] runTask = "{\"id\":\"70163548713537588\",\"profileId\":\"70160948381327473\"}".getBytes();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.createContext("/v2/workflow/get-task", exchange -> answer(exchange, taskPayload));
+        server.createContext("/v2/workflow/get-task-status", exchange -> answer(exchange, status));
+        server.createContext("/v2/workflow/run-task", exchange -> answer(exchange, runTask));
+        server.createContext("/v2/workflow/stop-task", exchange -> answer(exchange, new byte[0]));
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v2/workflow";
+    }
+
+    private static void answer(HttpExchange exchange, byte[] payload) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // drain the request body so the connection can be reused
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, payload.length == 0 ? -1 : payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
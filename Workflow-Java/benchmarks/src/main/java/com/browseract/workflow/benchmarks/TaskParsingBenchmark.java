@@ -0,0 +1,64 @@
+package com.browseract.workflow.benchmarks;
+
+import com.browseract.workflow.demo.model.Task;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a get-task answer: from a String into a tree as the example programs do, and from the bytes
+ * or the stream into the typed model as WorkflowClient does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskParsingBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Param({"10", "100", "1000"})
+    private int stepCount;
+
+    private byte[] payload;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        payload = Payloads.task(stepCount);
+        reader = objectMapper.readerFor(Task.class);
+    }
+
+    @Benchmark
+    public JsonNode textToTree() throws IOException {
+        return objectMapper.readTree(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Task bytesToModel() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @Benchmark
+    public Task streamToModel() throws IOException {
+        return reader.readValue(new ByteArrayInputStream(payload));
+    }
+}
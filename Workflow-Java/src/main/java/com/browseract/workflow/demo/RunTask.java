@@ -40,7 +40,7 @@ public class RunTask {
         requestBodyObject.setSave_browser_data(true);
         requestBodyObject.setProfile_id("");
         requestBodyObject.setCallback_url("https://www.mydomain.com/task_finish_callback");
-        requestBodyObject.setStatus_change_callback_url(""https://www.mydomain.com/task_status_change_callback"");
+        requestBodyObject.setStatus_change_callback_url("https://www.mydomain.com/task_status_change_callback");
 
         // add workflow's parameters
         List<InputParameter> params = new ArrayList<>();
@@ -155,7 +155,15 @@ public class RunTask {
         }
 
         public void setCallback_url(String callback_url) {
-            this.callback_url = profile_id;
+            this.callback_url = callback_url;
+        }
+
+        public String getStatus_change_callback_url() {
+            return status_change_callback_url;
+        }
+
+        public void setStatus_change_callback_url(String status_change_callback_url) {
+            this.status_change_callback_url = status_change_callback_url;
         }
     }
 
@@ -0,0 +1,48 @@
+package com.browseract.workflow.demo.batch;
+
+/**
+ * Settings of a {@link BatchRunner}.
+ */
+public class BatchConfig {
+
+    /**
+     * Maximum number of operations in flight. Reading the input waits while they are all taken.
+     */
+    private int maxConcurrent = 64;
+
+    /**
+     * Maximum number of operations read whose result is not written yet, in flight or held back behind a slower
+     * one for ordering. Bounds the memory of the held results; reading the input waits while they are all taken.
+     */
+    private int maxPending = 4096;
+
+    /**
+     * Whether the results are written in the order of the operations, rather than as they complete.
+     */
+    private boolean ordered = true;
+
+    // Getters and Setters
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+}
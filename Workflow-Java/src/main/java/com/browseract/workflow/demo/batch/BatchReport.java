@@ -0,0 +1,45 @@
+package com.browseract.workflow.demo.batch;
+
+/**
+ * What one {@link BatchRunner} run did.
+ */
+public class BatchReport {
+
+    private final long operations;
+    private final long failed;
+    private final long durationMillis;
+
+    public BatchReport(long operations, long failed, long durationMillis) {
+        this.operations = operations;
+        this.failed = failed;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Returns the number of operations read, malformed ones included.
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getSucceeded() {
+        return operations - failed;
+    }
+
+    /**
+     * Returns the number of operations with an error result.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "operations=" + operations + " succeeded=" + (operations - failed) + " failed=" + failed
+                + " duration=" + durationMillis + "ms";
+    }
+}
@@ -0,0 +1,368 @@
+package com.browseract.workflow.demo.batch;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.client.WorkflowClientConfig;
+import com.browseract.workflow.demo.simulator.ApiSimulator;
+import com.browseract.workflow.demo.simulator.SimulatorConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs API operations read as NDJSON, one JSON object per line, in one long-lived JVM, and writes one NDJSON
+ * result per operation.
+ * <p>
+ * Operations are sent as they are read, with up to {@code maxConcurrent} in flight, so a file of thousands of
+ * operations costs one JVM start instead of one per call, and reading from a pipe keeps a warm runner serving
+ * operations until the input ends. Results are written in the order of the operations, or as they complete.
+ * <pre>
+ * {"id":"a","op":"run","workflow_id":70000000000000001,"input_parameters":[{"name":"KeyWord","value":"shoes"}]}
+ * {"id":"b","op":"status","task_id":16612404460519847}
+ * {"op":"list","workflow_id":70000000000000001,"page":1,"limit":20}
+ * -&gt;
+ * {"id":"a","op":"run","ok":true,"result":{"id":16612404460519848,"profileId":null}}
+ * {"id":"b","op":"status","ok":false,"error":{"status":400,"code":10112,"message":"get-task-status failed: status=400 code=10112 Task is not exist."}}
+ * {"id":3,"op":"list","ok":true,"result":{"page":1,"limit":20,"items":[...],"total_pages":1,"total_count":2}}
+ * </pre>
+ * The operations are {@code run} (the other fields are the run-task body), {@code stop}, {@code resume},
+ * {@code get} and {@code status} (with {@code task_id}), {@code list} (with an optional {@code workflow_id},
+ * {@code page} and {@code limit}), {@code workflows} (with {@code page} and {@code limit}) and {@code workflow}
+ * (with {@code workflow_id}). The {@code id} of an operation, any JSON value, is echoed in its result;
+ * without one the line number is.
+ */
+public class BatchRunner {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final WorkflowClient client;
+    private final BatchConfig config;
+
+    public BatchRunner(WorkflowClient client) {
+        this(client, new BatchConfig());
+    }
+
+    public BatchRunner(WorkflowClient client, BatchConfig config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    /**
+     * Run every operation of the input, and return once each result is written.
+     *
+     * @throws IOException if the input cannot be read or the results cannot be written
+     */
+    public BatchReport run(InputStream in, OutputStream out) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Run run = new Run(out);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        long sequence = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            run.acquire();
+            run.execute(sequence++, lineNumber, line);
+        }
+        run.await();
+        return new BatchReport(sequence, run.failed, System.currentTimeMillis() - start);
+    }
+
+    private CompletableFuture<?> execute(String op, JsonNode operation) throws JsonProcessingException {
+        switch (op) {
+            case "run":
+                ObjectNode body = (ObjectNode) operation.deepCopy();
+                body.remove("id");
+                body.remove("op");
+                return client.runTask(objectMapper.writeValueAsBytes(body));
+            case "stop":
+                return client.stopTask(requiredLong(operation, "task_id"));
+            case "resume":
+                return client.resumeTask(requiredLong(operation, "task_id"));
+            case "get":
+                return client.getTask(requiredLong(operation, "task_id"));
+            case "status":
+                return client.getTaskStatus(requiredLong(operation, "task_id"));
+            case "list":
+                return operation.has("workflow_id")
+                        ? client.listTasks(requiredLong(operation, "workflow_id"), page(operation), limit(operation))
+                        : client.listTasks(page(operation), limit(operation));
+            case "workflows":
+                return client.listWorkflows(page(operation), limit(operation));
+            case "workflow":
+                return client.getWorkflow(requiredLong(operation, "workflow_id"));
+            default:
+                throw new IllegalArgumentException("unknown op: " + op);
+        }
+    }
+
+    private static long requiredLong(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value != null && value.canConvertToLong()) {
+            return value.asLong();
+        }
+        if (value != null && value.isTextual()) {
+            // IDs past 2^53 are often quoted so that JavaScript tools keep them exact
+            try {
+                return Long.parseLong(value.asText());
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("missing or invalid " + field);
+    }
+
+    private static int page(JsonNode operation) {
+        return operation.path("page").asInt(1);
+    }
+
+    private static int limit(JsonNode operation) {
+        return operation.path("limit").asInt(20);
+    }
+
+    /**
+     * The operations of one input. The permits bound the operations in flight, the window those not written yet.
+     */
+    private class Run {
+        private final OutputStream out;
+        private final int windowSize = Math.max(config.getMaxPending(), config.getMaxConcurrent());
+        private final Semaphore permits = new Semaphore(Math.max(1, config.getMaxConcurrent()));
+        private final Semaphore window = new Semaphore(Math.max(1, windowSize));
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private final Map<Long, byte[]> held = new HashMap<>();
+        private long nextToWrite;
+        private long failed;
+        private IOException writeError;
+
+        Run(OutputStream out) {
+            this.out = out;
+        }
+
+        void execute(long sequence, long lineNumber, String line) {
+            JsonNode id = LongNode.valueOf(lineNumber);
+            String op = null;
+            CompletableFuture<?> call;
+            try {
+                JsonNode operation = objectMapper.readTree(line);
+                if (!operation.isObject()) {
+                    throw new IllegalArgumentException("an operation is a JSON object");
+                }
+                if (operation.has("id")) {
+                    id = operation.get("id");
+                }
+                op = operation.path("op").asText(null);
+                if (op == null) {
+                    throw new IllegalArgumentException("missing op");
+                }
+                call = BatchRunner.this.execute(op, operation);
+            } catch (JsonProcessingException | RuntimeException e) {
+                call = Futures.failed(e);
+            }
+            JsonNode resultId = id;
+            String resultOp = op;
+            call.whenComplete((value, error) -> complete(sequence, result(resultId, resultOp, value, error), error == null));
+        }
+
+        void acquire() throws InterruptedException {
+            window.acquire();
+            permits.acquire();
+        }
+
+        void await() throws InterruptedException, IOException {
+            window.acquire(Math.max(1, windowSize));
+            lock.lock();
+            try {
+                if (writeError != null) {
+                    throw writeError;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private byte[] result(JsonNode id, String op, Object value, Throwable error) {
+            ObjectNode result = objectMapper.createObjectNode();
+            result.set("id", id);
+            result.put("op", op);
+            result.put("ok", error == null);
+            if (error == null) {
+                if (value != null) {
+                    result.putPOJO("result", value);
+                }
+            } else {
+                Throwable cause = Futures.unwrap(error);
+                ObjectNode detail = result.putObject("error");
+                WorkflowApiException apiError = WorkflowApiException.from(cause);
+                if (apiError != null) {
+                    detail.set("status", IntNode.valueOf(apiError.getHttpStatus()));
+                    detail.set("code", IntNode.valueOf(apiError.getErrorCode()));
+                }
+                detail.put("message", cause.getMessage() != null ? cause.getMessage() : cause.toString());
+            }
+            try {
+                return objectMapper.writeValueAsBytes(result);
+            } catch (JsonProcessingException e) {
+                return ("{\"op\":" + (op == null ? "null" : '"' + op + '"')
+                        + ",\"ok\":false,\"error\":{\"message\":\"result not serializable\"}}")
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        private void complete(long sequence, byte[] line, boolean ok) {
+            permits.release();
+            lock.lock();
+            try {
+                if (!ok) {
+                    failed++;
+                }
+                if (!config.isOrdered()) {
+                    write(line);
+                    window.release();
+                } else {
+                    held.put(sequence, line);
+                    byte[] next;
+                    while ((next = held.remove(nextToWrite)) != null) {
+                        write(next);
+                        nextToWrite++;
+                        window.release();
+                    }
+                }
+                if (writeError == null) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                writeError = e;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // requires lock
+        private void write(byte[] line) throws IOException {
+            if (writeError == null) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Run operations from a file, or from stdin when none is given or it is "-", with the key of the
+     * BROWSERACT_API_KEY environment variable:
+     * BatchRunner [--unordered] [--concurrency N] [file]
+     * <p>
+     * {@code BatchRunner --train} runs each operation against an in-process {@link ApiSimulator} instead,
+     * so that a class data sharing archive can be recorded without calling the API.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BatchConfig config = new BatchConfig();
+        boolean train = false;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--unordered".equals(args[i])) {
+                config.setOrdered(false);
+            } else if ("--concurrency".equals(args[i]) && i + 1 < args.length) {
+                config.setMaxConcurrent(Integer.parseInt(args[++i]));
+            } else if ("--train".equals(args[i])) {
+                train = true;
+            } else {
+                file = args[i];
+            }
+        }
+        BatchReport report = train ? train(config) : runMain(config, file);
+        System.err.println(report);
+        // the HTTP client threads would keep the JVM alive for a while
+        System.exit(report.getFailed() == 0 ? 0 : 1);
+    }
+
+    private static BatchReport runMain(BatchConfig config, String file) throws IOException, InterruptedException {
+        String apiKey = System.getenv("BROWSERACT_API_KEY");
+        if (apiKey == null) {
+            System.err.println("BROWSERACT_API_KEY is not set");
+            System.exit(2);
+        }
+        WorkflowClientConfig clientConfig = new WorkflowClientConfig(apiKey);
+        if (System.getenv("BROWSERACT_BASE_URL") != null) {
+            clientConfig.setBaseUrl(System.getenv("BROWSERACT_BASE_URL"));
+        }
+        BatchRunner runner = new BatchRunner(new WorkflowClient(clientConfig), config);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);
+        if (file == null || "-".equals(file)) {
+            return runner.run(System.in, out);
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            return runner.run(in, out);
+        }
+    }
+
+    /**
+     * Load and run the code of every operation, failures included, against the simulator.
+     */
+    private static BatchReport train(BatchConfig config) throws IOException, InterruptedException {
+        SimulatorConfig simulatorConfig = new SimulatorConfig();
+        simulatorConfig.setPort(0);
+        try (ApiSimulator simulator = new ApiSimulator(simulatorConfig)) {
+            simulator.start();
+            WorkflowClientConfig clientConfig = new WorkflowClientConfig("training");
+            clientConfig.setBaseUrl(simulator.getBaseUrl());
+            WorkflowClient client = new WorkflowClient(clientConfig);
+            long workflowId = simulator.getWorkflowIds().get(0);
+            RunTask.RunTaskRequest request = new RunTask.RunTaskRequest();
+            request.setWorkflow_id(workflowId);
+            long taskId = client.runTask(request).join().getId();
+
+            List<String> operations = new ArrayList<>();
+            operations.add("{\"op\":\"run\",\"workflow_id\":" + workflowId
+                    + ",\"input_parameters\":[{\"name\":\"KeyWord\",\"value\":\"training\"}]}");
+            operations.add("{\"op\":\"get\",\"task_id\":" + taskId + "}");
+            operations.add("{\"op\":\"status\",\"task_id\":\"" + taskId + "\"}");
+            operations.add("{\"op\":\"list\",\"workflow_id\":" + workflowId + ",\"page\":1,\"limit\":10}");
+            operations.add("{\"op\":\"list\"}");
+            operations.add("{\"op\":\"workflows\"}");
+            operations.add("{\"op\":\"workflow\",\"workflow_id\":" + workflowId + "}");
+            operations.add("{\"op\":\"stop\",\"task_id\":" + taskId + "}");
+            operations.add("{\"op\":\"resume\",\"task_id\":" + taskId + "}");
+            operations.add("{\"op\":\"status\",\"task_id\":1}");
+            operations.add("{\"op\":\"stop\"}");
+            operations.add("not json");
+            byte[] input = String.join("\n", operations).getBytes(StandardCharsets.UTF_8);
+
+            BatchReport report = null;
+            for (boolean ordered : new boolean[]{true, false}) {
+                config.setOrdered(ordered);
+                report = new BatchRunner(client, config).run(new ByteArrayInputStream(input), new ByteArrayOutputStream());
+            }
+            // failures are part of the training, only the number of operations tells
+            return new BatchReport(report.getOperations(), 0, report.getDurationMillis());
+        }
+    }
+}
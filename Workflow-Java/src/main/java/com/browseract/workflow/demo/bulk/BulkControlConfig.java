@@ -0,0 +1,48 @@
+package com.browseract.workflow.demo.bulk;
+
+/**
+ * Settings of a {@link BulkTaskControl}.
+ */
+public class BulkControlConfig {
+
+    /**
+     * Maximum number of stop-task or resume-task calls in flight. Listing waits while they are all taken.
+     */
+    private int maxConcurrent = 64;
+
+    /**
+     * Maximum number of calls for one task. IO errors, server errors and push backs are retried,
+     * as stopping or resuming a task twice has the same effect as once.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Pause before the first retry of a task, doubled on each next one, with jitter.
+     */
+    private long initialBackoffMillis = 200;
+
+    // Getters and Setters
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+}
@@ -0,0 +1,105 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.journal.SubmissionJournal;
+import com.browseract.workflow.demo.tracking.TaskRegistry;
+
+/**
+ * Settings of a {@link BulkSubmitter}.
+ */
+public class BulkSubmitConfig {
+
+    /**
+     * Maximum number of run-task calls in flight. The submitter shrinks the window below it
+     * when the server pushes back, and grows it again while submissions succeed.
+     */
+    private int maxInFlight = 16;
+
+    /**
+     * Whether results are emitted in input order. Unordered results are emitted as soon as they complete.
+     */
+    private boolean ordered = true;
+
+    /**
+     * Maximum number of submissions of one item that the server pushes back, before it is reported as failed.
+     */
+    private int maxAttempts = 20;
+
+    /**
+     * Pause after the first push back, doubled on each consecutive one.
+     */
+    private long initialBackoffMillis = 1_000;
+
+    /**
+     * Upper bound of the pause after a push back.
+     */
+    private long maxBackoffMillis = 60_000;
+
+    /**
+     * Registry where each created task is registered as created, e.g. the one of a
+     * {@link com.browseract.workflow.demo.tracking.TaskPoller} so that it polls them. When null, created tasks are only reported in the results.
+     */
+    private TaskRegistry registry;
+
+    /**
+     * Journal where each run-task call is recorded before it is sent, with its outcome, so that a restarted
+     * process knows which submissions went through. When null, nothing is journaled.
+     */
+    private SubmissionJournal journal;
+
+    // Getters and Setters
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public TaskRegistry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(TaskRegistry registry) {
+        this.registry = registry;
+    }
+
+    public SubmissionJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(SubmissionJournal journal) {
+        this.journal = journal;
+    }
+}
@@ -0,0 +1,361 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.RunTaskEncoder;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.journal.SubmissionJournal;
+import com.browseract.workflow.demo.model.RunTaskResult;
+import com.browseract.workflow.demo.model.TaskState;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Submits a large batch of run-task calls for one workflow.
+ * <p>
+ * Input parameter lists are pulled lazily from the source, only when a submission slot and room in the
+ * result buffer are free, so the batch is never loaded into memory. At most
+ * {@link BulkSubmitConfig#getMaxInFlight()} calls are in flight; when the server pushes back
+ * (HTTP 429 or "Running tasks number exceeds") the window is halved, submissions pause with a jittered
+ * exponential backoff, and the rejected item is sent again. The window then grows back by one per
+ * window of successful submissions, so the batch runs at the rate the account quota allows.
+ * <p>
+ * Only push backs are retried: a run-task call that failed for another reason, e.g. an IO error,
+ * may have created the task, and is reported as a failed {@link SubmitResult} instead.
+ * <p>
+ * With a {@link BulkSubmitConfig#getRegistry() registry}, each created task is registered in it,
+ * so that a poller sharing it follows the task from its creation. With a
+ * {@link BulkSubmitConfig#getJournal() journal}, each call is journaled before it is sent.
+ * <pre>
+ * try (BulkSubmitter submitter = new BulkSubmitter(client, new BulkSubmitConfig())) {
+ *     submitter.submit(template, parameters).forEach(result -&gt; System.out.println(result.getTaskId()));
+ * }
+ * </pre>
+ */
+public class BulkSubmitter implements Closeable {
+
+    private final WorkflowClient client;
+    private final BulkSubmitConfig config;
+    private final ScheduledExecutorService scheduler;
+
+    public BulkSubmitter(WorkflowClient client) {
+        this(client, new BulkSubmitConfig());
+    }
+
+    public BulkSubmitter(WorkflowClient client, BulkSubmitConfig config) {
+        this.client = client;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-submitter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submit one task per parameter list of the workflow, with default settings for the other fields.
+     */
+    public Stream<SubmitResult> submit(long workflowId, Iterator<List<RunTask.InputParameter>> parameters) {
+        RunTask.RunTaskRequest template = new RunTask.RunTaskRequest();
+        template.setWorkflow_id(workflowId);
+        return submit(template, parameters);
+    }
+
+    public Stream<SubmitResult> submit(RunTask.RunTaskRequest template, Stream<List<RunTask.InputParameter>> parameters) {
+        return submit(template, parameters.iterator()).onClose(parameters::close);
+    }
+
+    /**
+     * Submit one task per parameter list. Every field of the template but input_parameters is shared by all tasks.
+     * <p>
+     * Submission starts immediately. The returned stream yields one result per item, in input order when
+     * {@link BulkSubmitConfig#isOrdered()} is set; closing it stops pulling new items from the source.
+     */
+    public Stream<SubmitResult> submit(RunTask.RunTaskRequest template, Iterator<List<RunTask.InputParameter>> parameters) {
+        Submission submission = new Submission(template, parameters);
+        submission.pump();
+        Spliterator<SubmitResult> spliterator = Spliterators.spliteratorUnknownSize(submission,
+                Spliterator.NONNULL | (config.isOrdered() ? Spliterator.ORDERED : 0));
+        return StreamSupport.stream(spliterator, false).onClose(submission::cancel);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static class Item {
+        final long index;
+        final List<RunTask.InputParameter> parameters;
+        int attempts;
+
+        Item(long index, List<RunTask.InputParameter> parameters) {
+            this.index = index;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * State of one bulk run, all fields are guarded by the lock.
+     */
+    private class Submission implements Iterator<SubmitResult> {
+        /**
+         * Encodes the shared fields of the template once, and only the parameters of each item.
+         */
+        private final RunTaskEncoder encoder;
+        private final Iterator<List<RunTask.InputParameter>> source;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition resultReady = lock.newCondition();
+
+        /**
+         * Results that can be handed to the consumer, in emission order.
+         */
+        private final ArrayDeque<SubmitResult> ready = new ArrayDeque<>();
+        /**
+         * Ordered mode only: results completed ahead of an earlier item.
+         */
+        private final Map<Long, SubmitResult> reorder = new HashMap<>();
+        /**
+         * Items pushed back by the server, sent again before new ones.
+         */
+        private final ArrayDeque<Item> retries = new ArrayDeque<>();
+        /**
+         * Bound of the items started but not yet taken by the consumer, which caps the memory of a run.
+         */
+        private final int maxBuffered;
+
+        private long nextIndex;
+        private long nextToEmit;
+        private boolean sourceDone;
+        private boolean cancelled;
+        private RuntimeException sourceError;
+        private int inFlight;
+        private int window;
+        private int successesSinceGrowth;
+        private long backoffMillis;
+        private long pausedUntil;
+        private boolean resumeScheduled;
+
+        Submission(RunTask.RunTaskRequest template, Iterator<List<RunTask.InputParameter>> source) {
+            this.encoder = new RunTaskEncoder(template);
+            this.source = source;
+            this.window = Math.max(1, config.getMaxInFlight());
+            this.maxBuffered = 2 * window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            lock.lock();
+            try {
+                while (ready.isEmpty()) {
+                    if (isDone()) {
+                        if (sourceError != null) {
+                            throw sourceError;
+                        }
+                        return false;
+                    }
+                    resultReady.awaitUninterruptibly();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public SubmitResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SubmitResult result;
+            lock.lock();
+            try {
+                result = ready.poll();
+            } finally {
+                lock.unlock();
+            }
+            // taking a result frees room in the buffer
+            pump();
+            return result;
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                sourceDone = true;
+                retries.clear();
+                resultReady.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Start as many items as the window and the buffer allow. Calls are sent outside the lock.
+         */
+        void pump() {
+            List<Item> toSend = new ArrayList<>();
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                if (now < pausedUntil) {
+                    scheduleResume(pausedUntil - now);
+                    return;
+                }
+                while (inFlight < window && buffered() < maxBuffered) {
+                    Item item = retries.poll();
+                    if (item == null) {
+                        item = pullFromSource();
+                        if (item == null) {
+                            break;
+                        }
+                    }
+                    item.attempts++;
+                    inFlight++;
+                    toSend.add(item);
+                }
+                if (isDone()) {
+                    resultReady.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (Item item : toSend) {
+                send(item);
+            }
+        }
+
+        private Item pullFromSource() {
+            if (sourceDone) {
+                return null;
+            }
+            try {
+                if (source.hasNext()) {
+                    return new Item(nextIndex++, source.next());
+                }
+            } catch (RuntimeException e) {
+                sourceError = e;
+            }
+            sourceDone = true;
+            return null;
+        }
+
+        private int buffered() {
+            if (config.isOrdered()) {
+                // items between the next one to emit and the next one to pull are all held somewhere
+                return (int) (nextIndex - nextToEmit) + ready.size();
+            }
+            return inFlight + retries.size() + ready.size();
+        }
+
+        private boolean isDone() {
+            return sourceDone && inFlight == 0 && retries.isEmpty() && reorder.isEmpty();
+        }
+
+        private void send(Item item) {
+            SubmissionJournal journal = config.getJournal();
+            CompletableFuture<RunTaskResult> call;
+            try {
+                call = journal != null
+                        ? journal.runTask(client, encoder, item.parameters)
+                        : client.runTask(encoder.encode(item.parameters));
+            } catch (RuntimeException e) {
+                // e.g. parameters that cannot be encoded: a result like any other failure, and the slot is freed
+                call = Futures.failed(e);
+            }
+            call.whenComplete((result, error) -> onComplete(item, result, error));
+        }
+
+        private void onComplete(Item item, RunTaskResult result, Throwable error) {
+            lock.lock();
+            try {
+                inFlight--;
+                WorkflowApiException apiError = WorkflowApiException.from(error);
+                if (apiError != null && apiError.isThrottled() && item.attempts < config.getMaxAttempts() && !cancelled) {
+                    onPushBack(item, apiError);
+                } else {
+                    if (error == null) {
+                        onSuccess();
+                        if (config.getRegistry() != null) {
+                            config.getRegistry().register(result.getId(), TaskState.CREATED);
+                        }
+                    }
+                    emit(new SubmitResult(item.index, item.parameters, result, error, item.attempts));
+                }
+            } finally {
+                lock.unlock();
+            }
+            pump();
+        }
+
+        private void onPushBack(Item item, WorkflowApiException error) {
+            retries.addFirst(item);
+            window = Math.max(1, window / 2);
+            successesSinceGrowth = 0;
+            backoffMillis = backoffMillis == 0
+                    ? config.getInitialBackoffMillis()
+                    : Math.min(config.getMaxBackoffMillis(), backoffMillis * 2);
+            long delay = error.getRetryAfterMillis() > 0
+                    ? error.getRetryAfterMillis()
+                    : backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + delay);
+        }
+
+        private void onSuccess() {
+            backoffMillis = 0;
+            if (window < config.getMaxInFlight() && ++successesSinceGrowth >= window) {
+                window++;
+                successesSinceGrowth = 0;
+            }
+        }
+
+        private void emit(SubmitResult result) {
+            if (!config.isOrdered()) {
+                ready.add(result);
+            } else {
+                reorder.put(result.getIndex(), result);
+                SubmitResult next;
+                while ((next = reorder.remove(nextToEmit)) != null) {
+                    ready.add(next);
+                    nextToEmit++;
+                }
+            }
+            resultReady.signalAll();
+        }
+
+        private void scheduleResume(long delayMillis) {
+            if (!resumeScheduled) {
+                resumeScheduled = true;
+                scheduler.schedule(() -> {
+                    lock.lock();
+                    try {
+                        resumeScheduled = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    pump();
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.util.Threads;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Stops or resumes every task matching a {@link TaskSelector}.
+ * <p>
+ * Matching tasks are acted on while list-tasks is still being walked, with up to {@code maxConcurrent} calls in
+ * flight, so a run takes about as long as the listing. IO errors, server errors and push backs are retried with a
+ * jittered backoff. A call refused by the API is checked with get-task-status: a task already in the wanted state
+ * (e.g. stopped by the first attempt of a retried call) is reported as {@link ControlResult.Outcome#ALREADY}
+ * rather than failed.
+ * <pre>
+ * try (BulkTaskControl control = new BulkTaskControl(client)) {
+ *     ControlReport report = control.stop(TaskSelector.ofWorkflow(workflowId), result -&gt; System.out.println(result.getTaskId()));
+ *     System.out.println(report);
+ * }
+ * </pre>
+ */
+public class BulkTaskControl implements Closeable {
+
+    private enum Action {
+        STOP(EnumSet.of(TaskState.CREATED, TaskState.RUNNING, TaskState.PAUSED)),
+        RESUME(EnumSet.of(TaskState.PAUSED));
+
+        /**
+         * States of the tasks the action applies to, when the selector does not tell.
+         */
+        final Set<TaskState> from;
+
+        Action(Set<TaskState> from) {
+            this.from = from;
+        }
+
+        /**
+         * Whether a task in this state needs the action no more.
+         */
+        boolean isAchieved(TaskState state) {
+            return this == STOP ? state.isTerminal() : state != TaskState.PAUSED;
+        }
+    }
+
+    private final WorkflowClient client;
+    private final BulkControlConfig config;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Retries waiting for their backoff, which {@link #close()} drops from the scheduler.
+     */
+    private final Set<Retry> waiting = ConcurrentHashMap.newKeySet();
+
+    public BulkTaskControl(WorkflowClient client) {
+        this(client, new BulkControlConfig());
+    }
+
+    public BulkTaskControl(WorkflowClient client, BulkControlConfig config) {
+        this.client = client;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Threads.daemonThreads("bulk-control"));
+    }
+
+    public ControlReport stop(TaskSelector selector) throws InterruptedException {
+        return run(Action.STOP, selector, null);
+    }
+
+    /**
+     * Stop the selected tasks, and return once each has an outcome.
+     *
+     * @param progress called with the outcome of each task as it completes, one at a time, or null
+     */
+    public ControlReport stop(TaskSelector selector, Consumer<ControlResult> progress) throws InterruptedException {
+        return run(Action.STOP, selector, progress);
+    }
+
+    public ControlReport resume(TaskSelector selector) throws InterruptedException {
+        return run(Action.RESUME, selector, null);
+    }
+
+    /**
+     * Resume the selected tasks, and return once each has an outcome.
+     *
+     * @param progress called with the outcome of each task as it completes, one at a time, or null
+     */
+    public ControlReport resume(TaskSelector selector, Consumer<ControlResult> progress) throws InterruptedException {
+        return run(Action.RESUME, selector, progress);
+    }
+
+    /**
+     * Stops retrying: the calls waiting for a retry fail, so that a run in progress returns.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (Retry retry : waiting) {
+            retry.fail();
+        }
+    }
+
+    private ControlReport run(Action action, TaskSelector selector, Consumer<ControlResult> progress)
+            throws InterruptedException {
+        long start = System.currentTimeMillis();
+        Run run = new Run(action, progress);
+        int listed = 0;
+        if (selector.getTaskIds() != null) {
+            for (long taskId : selector.getTaskIds()) {
+                run.submit(taskId);
+            }
+        } else {
+            Iterable<Task> tasks = selector.getWorkflowId() == null
+                    ? client.listAllTasks()
+                    : client.listAllTasks(selector.getWorkflowId());
+            for (Task task : tasks) {
+                listed++;
+                if (selector.isBelowRange(task)) {
+                    // tasks are listed newest first, the rest is older still
+                    break;
+                }
+                if (selector.matches(task, action.from)) {
+                    run.submit(task.getId());
+                }
+            }
+        }
+        run.await();
+        return new ControlReport(listed, run.results, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * The calls of one run. The permits bound the calls in flight, retries included.
+     */
+    private class Run {
+        private final Action action;
+        private final Consumer<ControlResult> progress;
+        private final Semaphore permits = new Semaphore(Math.max(1, config.getMaxConcurrent()));
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private final List<ControlResult> results = new ArrayList<>();
+
+        Run(Action action, Consumer<ControlResult> progress) {
+            this.action = action;
+            this.progress = progress;
+        }
+
+        void submit(long taskId) throws InterruptedException {
+            permits.acquire();
+            send(taskId, 1);
+        }
+
+        /**
+         * Wait for the outcome of every submitted task.
+         */
+        void await() throws InterruptedException {
+            permits.acquire(Math.max(1, config.getMaxConcurrent()));
+        }
+
+        private void send(long taskId, int attempt) {
+            CompletableFuture<Void> call = action == Action.STOP ? client.stopTask(taskId) : client.resumeTask(taskId);
+            call.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    complete(new ControlResult(taskId, ControlResult.Outcome.DONE, attempt, null));
+                    return;
+                }
+                WorkflowApiException apiError = WorkflowApiException.from(error);
+                boolean retryable = apiError == null || apiError.isServerError() || apiError.isThrottled();
+                if (retryable && attempt < config.getMaxAttempts()) {
+                    long backoff = config.getInitialBackoffMillis() << Math.min(attempt - 1, 16);
+                    long delay = apiError != null && apiError.getRetryAfterMillis() > 0
+                            ? apiError.getRetryAfterMillis()
+                            : backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                    Retry retry = new Retry(this, taskId, attempt + 1);
+                    waiting.add(retry);
+                    try {
+                        scheduler.schedule(retry, delay, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        retry.fail();
+                    }
+                } else if (apiError != null && !retryable) {
+                    checkState(taskId, attempt, error);
+                } else {
+                    complete(new ControlResult(taskId, ControlResult.Outcome.FAILED, attempt, Futures.unwrap(error)));
+                }
+            });
+        }
+
+        /**
+         * Tell a refused call on a task already in the wanted state from a real failure.
+         */
+        private void checkState(long taskId, int attempt, Throwable refusal) {
+            client.getTaskStatus(taskId).whenComplete((status, error) -> {
+                if (error == null && status.getStatus() != null && action.isAchieved(status.getStatus())) {
+                    complete(new ControlResult(taskId, ControlResult.Outcome.ALREADY, attempt, null));
+                } else {
+                    complete(new ControlResult(taskId, ControlResult.Outcome.FAILED, attempt, Futures.unwrap(refusal)));
+                }
+            });
+        }
+
+        private void complete(ControlResult result) {
+            lock.lock();
+            try {
+                results.add(result);
+                if (progress != null) {
+                    progress.accept(result);
+                }
+            } catch (RuntimeException e) {
+                // a failing listener does not stop the run
+            } finally {
+                lock.unlock();
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * A call waiting for its backoff. It either runs or fails, once, so the permit of the task is released once.
+     */
+    private final class Retry implements Runnable {
+        private final Run run;
+        private final long taskId;
+        private final int attempt;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Retry(Run run, long taskId, int attempt) {
+            this.run = run;
+            this.taskId = taskId;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                waiting.remove(this);
+                run.send(taskId, attempt);
+            }
+        }
+
+        void fail() {
+            if (claimed.compareAndSet(false, true)) {
+                waiting.remove(this);
+                run.complete(new ControlResult(taskId, ControlResult.Outcome.FAILED, attempt - 1,
+                        new RejectedExecutionException("the bulk control is closed")));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.browseract.workflow.demo.bulk;
+
+import java.util.List;
+
+/**
+ * What one {@link BulkTaskControl} run did.
+ */
+public class ControlReport {
+
+    private final int listed;
+    private final List<ControlResult> results;
+    private final int done;
+    private final int already;
+    private final int failed;
+    private final long durationMillis;
+
+    public ControlReport(int listed, List<ControlResult> results, long durationMillis) {
+        this.listed = listed;
+        this.results = results;
+        int done = 0;
+        int already = 0;
+        for (ControlResult result : results) {
+            if (result.getOutcome() == ControlResult.Outcome.DONE) {
+                done++;
+            } else if (result.getOutcome() == ControlResult.Outcome.ALREADY) {
+                already++;
+            }
+        }
+        this.done = done;
+        this.already = already;
+        this.failed = results.size() - done - already;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Returns the number of tasks read from list-tasks, 0 for a selector of explicit task IDs.
+     */
+    public int getListed() {
+        return listed;
+    }
+
+    /**
+     * Returns the number of tasks selected and acted on.
+     */
+    public int getSelected() {
+        return results.size();
+    }
+
+    /**
+     * Returns the outcome of each selected task, in completion order.
+     */
+    public List<ControlResult> getResults() {
+        return results;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public int getAlready() {
+        return already;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "listed=" + listed + " selected=" + results.size() + " done=" + done + " already=" + already
+                + " failed=" + failed + " duration=" + durationMillis + "ms";
+    }
+}
@@ -0,0 +1,58 @@
+package com.browseract.workflow.demo.bulk;
+
+/**
+ * Outcome of a stop or resume of one task by a {@link BulkTaskControl}.
+ */
+public class ControlResult {
+
+    public enum Outcome {
+        /**
+         * The call succeeded.
+         */
+        DONE,
+        /**
+         * The call was refused, but the task was already in the wanted state: stopped or ended for a stop,
+         * no longer paused for a resume.
+         */
+        ALREADY,
+        FAILED
+    }
+
+    private final long taskId;
+    private final Outcome outcome;
+    private final int attempts;
+    private final Throwable error;
+
+    public ControlResult(long taskId, Outcome outcome, int attempts, Throwable error) {
+        this.taskId = taskId;
+        this.outcome = outcome;
+        this.attempts = attempts;
+        this.error = error;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isSuccess() {
+        return outcome != Outcome.FAILED;
+    }
+
+    /**
+     * Returns how many times the call was sent.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns the error of the last call, or null if it succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+}
@@ -0,0 +1,439 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.RunTaskResult;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.tracking.TaskPoller;
+import com.browseract.workflow.demo.util.Threads;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs tasks so that no two tasks on the same browser profile run at the same time, while tasks on different
+ * profiles run in parallel.
+ * <p>
+ * Each profile_id has its own FIFO queue, and holds one slot from the run-task call of its current task until
+ * the task reaches a terminal state, as seen by the {@link TaskPoller} (or the callbacks feeding it). The next
+ * task of the profile is then started at once. Up to {@code maxInFlight} tasks run across all profiles: free
+ * slots go to the profiles with queued work in turn, and a profile whose task finished goes back to the end of the
+ * line, so a profile with many queued tasks cannot starve the others. Tasks without a profile_id have no
+ * constraint and share the slots with the profiles.
+ * <p>
+ * When the server pushes back (too many running tasks), the task goes back to the head of its queue, dispatching
+ * pauses with a jittered backoff and the number of running tasks is capped to what the server accepted. The cap
+ * then grows back by one per cap of tasks created, as the window of {@link BulkSubmitter}.
+ * <p>
+ * A task whose run-task call got no answer, e.g. on an IO error or a timeout, fails but may have been created, so
+ * its profile stays held until list-tasks shows no task of the workflow running on it. A task found running on it
+ * is tracked and frees the profile once terminal. When list-tasks cannot be read either, the queued tasks of the
+ * profile fail rather than risk running beside it.
+ * <pre>
+ * try (ProfileScheduler scheduler = new ProfileScheduler(client, poller, new ProfileSchedulerConfig())) {
+ *     scheduler.submit(request).getFinished().thenAccept(state -&gt; System.out.println("done: " + state));
+ * }
+ * </pre>
+ */
+public class ProfileScheduler implements Closeable {
+
+    /**
+     * Number of the newest tasks of the workflow looked at to find out whether a profile is busy.
+     */
+    private static final int RESOLVE_PAGE_SIZE = 100;
+
+    private final WorkflowClient client;
+    private final TaskPoller poller;
+    private final ProfileSchedulerConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final Lane anonymous = new Lane(null);
+    /**
+     * Lanes with a task that may start now, in the order they get the free slots.
+     */
+    private final ArrayDeque<Lane> ready = new ArrayDeque<>();
+    private int inFlight;
+    private int window;
+    private int createdSinceGrowth;
+    private int queued;
+    private long backoffMillis;
+    private long pausedUntil;
+    private boolean resumeScheduled;
+    private boolean closed;
+
+    public ProfileScheduler(WorkflowClient client, TaskPoller poller) {
+        this(client, poller, new ProfileSchedulerConfig());
+    }
+
+    public ProfileScheduler(WorkflowClient client, TaskPoller poller, ProfileSchedulerConfig config) {
+        this.client = client;
+        this.poller = poller;
+        this.config = config;
+        this.window = Math.max(1, config.getMaxInFlight());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Threads.daemonThreads("profile-scheduler"));
+    }
+
+    /**
+     * Queue a task behind the other tasks of its profile.
+     */
+    public ScheduledTask submit(RunTask.RunTaskRequest request) {
+        ScheduledTask task = new ScheduledTask(request);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("scheduler closed");
+            }
+            Lane lane = request.getProfile_id() == null
+                    ? anonymous
+                    : lanes.computeIfAbsent(request.getProfile_id(), Lane::new);
+            lane.queue.add(task);
+            queued++;
+            offer(lane, false);
+        } finally {
+            lock.unlock();
+        }
+        pump();
+        return task;
+    }
+
+    /**
+     * Returns the number of tasks waiting for their profile or for a slot.
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tasks started and not yet terminal.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops dispatching. Queued tasks fail, started ones keep running.
+     */
+    @Override
+    public void close() {
+        List<ScheduledTask> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (Lane lane : lanes.values()) {
+                dropped.addAll(lane.queue);
+                lane.queue.clear();
+            }
+            dropped.addAll(anonymous.queue);
+            anonymous.queue.clear();
+            ready.clear();
+            queued = 0;
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdownNow();
+        IllegalStateException error = new IllegalStateException("scheduler closed");
+        for (ScheduledTask task : dropped) {
+            task.fail(error);
+        }
+    }
+
+    /**
+     * Start queued tasks while there are free slots.
+     */
+    private void pump() {
+        List<ScheduledTask> starts = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (now < pausedUntil) {
+                scheduleResume(pausedUntil - now);
+                return;
+            }
+            while (inFlight < window && !ready.isEmpty()) {
+                Lane lane = ready.poll();
+                lane.inReady = false;
+                ScheduledTask task = lane.queue.poll();
+                queued--;
+                lane.running++;
+                inFlight++;
+                // only the lane without a profile can run several tasks, it takes its turn again at the end
+                offer(lane, false);
+                starts.add(task);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (ScheduledTask task : starts) {
+            start(task);
+        }
+    }
+
+    private void start(ScheduledTask task) {
+        task.attempts++;
+        client.runTask(task.request).whenComplete((result, error) -> {
+            if (error == null) {
+                onCreated();
+                task.created.complete(result);
+                poller.track(result.getId()).whenComplete((state, pollError) -> {
+                    release(task);
+                    if (pollError != null) {
+                        task.finished.completeExceptionally(pollError);
+                    } else {
+                        task.finished.complete(state);
+                    }
+                });
+                return;
+            }
+            WorkflowApiException apiError = WorkflowApiException.from(error);
+            if (apiError != null && apiError.isThrottled() && task.attempts < config.getMaxAttempts()) {
+                onPushBack(task, apiError);
+            } else if (apiError == null && task.request.getProfile_id() != null) {
+                task.fail(error);
+                resolve(task, 1);
+            } else {
+                release(task);
+                task.fail(error);
+            }
+        });
+    }
+
+    /**
+     * Keep the profile of a task whose run-task call got no answer until the newest tasks of its workflow show that
+     * none runs on it.
+     */
+    private void resolve(ScheduledTask task, int attempt) {
+        String profileId = task.request.getProfile_id();
+        client.listTasks(task.request.getWorkflow_id(), 1, RESOLVE_PAGE_SIZE).whenComplete((page, error) -> {
+            if (error != null) {
+                if (attempt >= config.getMaxAttempts()) {
+                    abandon(task, error);
+                    return;
+                }
+                long delay = Math.min(config.getMaxBackoffMillis(), config.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+                try {
+                    scheduler.schedule(() -> resolve(task, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // closed, nothing is queued any more
+                    release(task);
+                }
+                return;
+            }
+            if (page.getItems() != null) {
+                for (Task item : page.getItems()) {
+                    if (profileId.equals(item.getProfile_id()) && (item.getStatus() == null || !item.getStatus().isTerminal())) {
+                        poller.track(item.getId()).whenComplete((state, pollError) -> release(task));
+                        return;
+                    }
+                }
+            }
+            release(task);
+        });
+    }
+
+    /**
+     * Give up finding out whether the profile of a task is busy: its queued tasks fail instead of starting.
+     */
+    private void abandon(ScheduledTask task, Throwable error) {
+        List<ScheduledTask> dropped;
+        lock.lock();
+        try {
+            Lane lane = laneOf(task);
+            dropped = new ArrayList<>(lane.queue);
+            lane.queue.clear();
+            queued -= dropped.size();
+        } finally {
+            lock.unlock();
+        }
+        release(task);
+        for (ScheduledTask queuedTask : dropped) {
+            queuedTask.fail(error);
+        }
+    }
+
+    /**
+     * Free the slot of a task that reached a terminal state or failed, and start the next one of its profile.
+     */
+    private void release(ScheduledTask task) {
+        lock.lock();
+        try {
+            inFlight--;
+            Lane lane = laneOf(task);
+            lane.running--;
+            offer(lane, false);
+            if (lane != anonymous && lane.running == 0 && lane.queue.isEmpty()) {
+                lanes.remove(lane.profileId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        pump();
+    }
+
+    private void onPushBack(ScheduledTask task, WorkflowApiException error) {
+        lock.lock();
+        try {
+            inFlight--;
+            Lane lane = laneOf(task);
+            lane.running--;
+            lane.queue.addFirst(task);
+            queued++;
+            // first in line once dispatching resumes
+            offer(lane, true);
+            // the tasks still running are what the server accepts
+            window = Math.max(1, Math.min(window, inFlight));
+            createdSinceGrowth = 0;
+            long now = System.currentTimeMillis();
+            if (now >= pausedUntil) {
+                // the calls rejected together escalate the backoff once
+                backoffMillis = backoffMillis == 0
+                        ? config.getInitialBackoffMillis()
+                        : Math.min(config.getMaxBackoffMillis(), backoffMillis * 2);
+                long delay = error.getRetryAfterMillis() > 0
+                        ? error.getRetryAfterMillis()
+                        : backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+                pausedUntil = now + delay;
+            }
+        } finally {
+            lock.unlock();
+        }
+        pump();
+    }
+
+    private void onCreated() {
+        lock.lock();
+        try {
+            backoffMillis = 0;
+            if (window < config.getMaxInFlight() && ++createdSinceGrowth >= window) {
+                window++;
+                createdSinceGrowth = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Put the lane in line for a slot if its next task may start and it is not in line yet.
+     */
+    private void offer(Lane lane, boolean first) {
+        if (!lane.inReady && lane.isReady()) {
+            lane.inReady = true;
+            if (first) {
+                ready.addFirst(lane);
+            } else {
+                ready.addLast(lane);
+            }
+        }
+    }
+
+    private Lane laneOf(ScheduledTask task) {
+        String profileId = task.request.getProfile_id();
+        return profileId == null ? anonymous : lanes.computeIfAbsent(profileId, Lane::new);
+    }
+
+    private void scheduleResume(long delayMillis) {
+        if (!resumeScheduled && !closed) {
+            resumeScheduled = true;
+            scheduler.schedule(() -> {
+                lock.lock();
+                try {
+                    resumeScheduled = false;
+                } finally {
+                    lock.unlock();
+                }
+                pump();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The queue of one profile, or of the tasks without a profile.
+     */
+    private static class Lane {
+        final String profileId;
+        final ArrayDeque<ScheduledTask> queue = new ArrayDeque<>();
+        int running;
+        boolean inReady;
+
+        Lane(String profileId) {
+            this.profileId = profileId;
+        }
+
+        /**
+         * Whether the head of the queue may start now.
+         */
+        boolean isReady() {
+            return !queue.isEmpty() && (profileId == null || running == 0);
+        }
+    }
+
+    /**
+     * A task submitted to the scheduler.
+     */
+    public static class ScheduledTask {
+        private final RunTask.RunTaskRequest request;
+        private final CompletableFuture<RunTaskResult> created = new CompletableFuture<>();
+        private final CompletableFuture<TaskState> finished = new CompletableFuture<>();
+        private volatile int attempts;
+
+        ScheduledTask(RunTask.RunTaskRequest request) {
+            this.request = request;
+        }
+
+        public RunTask.RunTaskRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * Completes with the run-task answer once the task is created.
+         */
+        public CompletableFuture<RunTaskResult> getCreated() {
+            return created;
+        }
+
+        /**
+         * Completes with the terminal state of the task, or fails if it could not be created.
+         */
+        public CompletableFuture<TaskState> getFinished() {
+            return finished;
+        }
+
+        /**
+         * Returns how many times the task was sent, push backs included.
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        private void fail(Throwable error) {
+            created.completeExceptionally(error);
+            finished.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.browseract.workflow.demo.bulk;
+
+/**
+ * Settings of a {@link ProfileScheduler}.
+ */
+public class ProfileSchedulerConfig {
+
+    /**
+     * Maximum number of tasks running at a time, across all profiles. A task counts from its run-task call
+     * until it reaches a terminal state.
+     */
+    private int maxInFlight = 16;
+
+    /**
+     * Maximum number of submissions of one task that the server pushes back, before it is reported as failed.
+     */
+    private int maxAttempts = 20;
+
+    /**
+     * Pause of all dispatching after the first push back, doubled on each consecutive one.
+     */
+    private long initialBackoffMillis = 1_000;
+
+    /**
+     * Upper bound of the pause after a push back.
+     */
+    private long maxBackoffMillis = 60_000;
+
+    // Getters and Setters
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+}
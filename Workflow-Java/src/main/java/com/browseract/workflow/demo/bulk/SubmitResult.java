@@ -0,0 +1,69 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.model.RunTaskResult;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a bulk submission.
+ */
+public class SubmitResult {
+
+    private final long index;
+    private final List<RunTask.InputParameter> inputParameters;
+    private final RunTaskResult result;
+    private final Throwable error;
+    private final int attempts;
+
+    public SubmitResult(long index, List<RunTask.InputParameter> inputParameters, RunTaskResult result, Throwable error, int attempts) {
+        this.index = index;
+        this.inputParameters = inputParameters;
+        this.result = result;
+        this.error = error;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Returns the position of the item in the submitted sequence, starting at 0.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public List<RunTask.InputParameter> getInputParameters() {
+        return inputParameters;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the run-task answer, or null if the submission failed.
+     */
+    public RunTaskResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the created task ID, or -1 if the submission failed.
+     */
+    public long getTaskId() {
+        return result == null ? -1 : result.getId();
+    }
+
+    /**
+     * Returns why the submission failed, or null if it succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Returns how many times the item was sent, push backs included.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+}
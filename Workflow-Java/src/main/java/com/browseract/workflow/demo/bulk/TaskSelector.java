@@ -0,0 +1,131 @@
+package com.browseract.workflow.demo.bulk;
+
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskState;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Selects the tasks a {@link BulkTaskControl} acts on. Criteria left null match every task.
+ * <pre>
+ * TaskSelector selector = new TaskSelector();
+ * selector.setWorkflowId(workflowId);
+ * selector.setCreatedAfter("2025-10-08T10:00:00Z");
+ * </pre>
+ */
+public class TaskSelector {
+
+    /**
+     * Only the tasks of this workflow, listed with its filter of list-tasks.
+     */
+    private Long workflowId;
+
+    /**
+     * Only the tasks in one of these states. When null, the states the action applies to:
+     * created, running and paused for stop, paused for resume.
+     */
+    private Set<TaskState> states;
+
+    /**
+     * Only the tasks created at or after this time, ISO-8601 in UTC like created_at. As tasks are listed newest
+     * first, listing stops at the first older task.
+     */
+    private String createdAfter;
+
+    /**
+     * Only the tasks created before this time, ISO-8601 in UTC like created_at.
+     */
+    private String createdBefore;
+
+    /**
+     * Exactly these tasks. They are acted on without listing, the other criteria do not apply.
+     */
+    private Set<Long> taskIds;
+
+    public TaskSelector() {
+    }
+
+    /**
+     * Returns a selector of the given tasks.
+     */
+    public static TaskSelector ofTasks(Collection<Long> taskIds) {
+        TaskSelector selector = new TaskSelector();
+        selector.setTaskIds(new LinkedHashSet<>(taskIds));
+        return selector;
+    }
+
+    /**
+     * Returns a selector of the tasks of a workflow.
+     */
+    public static TaskSelector ofWorkflow(long workflowId) {
+        TaskSelector selector = new TaskSelector();
+        selector.setWorkflowId(workflowId);
+        return selector;
+    }
+
+    /**
+     * Whether a listed task matches the criteria, with the given states when the selector has none.
+     */
+    boolean matches(Task task, Set<TaskState> defaultStates) {
+        Set<TaskState> wanted = states == null ? defaultStates : states;
+        if (wanted != null && !wanted.contains(task.getStatus())) {
+            return false;
+        }
+        String createdAt = task.getCreated_at();
+        if (createdBefore != null && createdAt != null && createdAt.compareTo(createdBefore) >= 0) {
+            return false;
+        }
+        return createdAfter == null || createdAt == null || createdAt.compareTo(createdAfter) >= 0;
+    }
+
+    /**
+     * Whether a listed task, and all those listed after it, are older than the selected range.
+     */
+    boolean isBelowRange(Task task) {
+        return createdAfter != null && task.getCreated_at() != null && task.getCreated_at().compareTo(createdAfter) < 0;
+    }
+
+    // Getters and Setters
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(Long workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    public Set<TaskState> getStates() {
+        return states;
+    }
+
+    public void setStates(Set<TaskState> states) {
+        this.states = states == null ? null : EnumSet.copyOf(states);
+    }
+
+    public String getCreatedAfter() {
+        return createdAfter;
+    }
+
+    public void setCreatedAfter(String createdAfter) {
+        this.createdAfter = createdAfter;
+    }
+
+    public String getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(String createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public Set<Long> getTaskIds() {
+        return taskIds;
+    }
+
+    public void setTaskIds(Set<Long> taskIds) {
+        this.taskIds = taskIds;
+    }
+}
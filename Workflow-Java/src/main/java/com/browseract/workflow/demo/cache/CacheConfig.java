@@ -0,0 +1,63 @@
+package com.browseract.workflow.demo.cache;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of a {@link ResultCache}.
+ */
+public class CacheConfig {
+
+    /**
+     * Maximum number of tasks and workflows kept in memory, the least recently read are evicted first.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * Time a task that is not terminal yet stays cached. Terminal tasks never change and never expire.
+     */
+    private long taskTtlMillis = 2_000;
+
+    /**
+     * Time a workflow definition stays cached.
+     */
+    private long workflowTtlMillis = 10 * 60_000;
+
+    /**
+     * Directory of the disk tier, which keeps terminal tasks and workflows across restarts.
+     * When null, only the memory tier is used.
+     */
+    private Path directory;
+
+    // Getters and Setters
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTaskTtlMillis() {
+        return taskTtlMillis;
+    }
+
+    public void setTaskTtlMillis(long taskTtlMillis) {
+        this.taskTtlMillis = taskTtlMillis;
+    }
+
+    public long getWorkflowTtlMillis() {
+        return workflowTtlMillis;
+    }
+
+    public void setWorkflowTtlMillis(long workflowTtlMillis) {
+        this.workflowTtlMillis = workflowTtlMillis;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+}
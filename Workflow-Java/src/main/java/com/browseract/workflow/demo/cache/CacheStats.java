@@ -0,0 +1,76 @@
+package com.browseract.workflow.demo.cache;
+
+/**
+ * Counters of a {@link ResultCache}, read at one point in time.
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long diskHits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final int size;
+
+    public CacheStats(long hits, long diskHits, long misses, long evictions, long expirations, int size) {
+        this.hits = hits;
+        this.diskHits = diskHits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of reads answered from memory.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads answered from the disk tier.
+     */
+    public long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * Returns the number of reads sent to the API.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries dropped from memory to respect the size bound.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of entries dropped because their time to live had passed.
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Returns the number of entries in memory.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public double getHitRate() {
+        long reads = hits + diskHits + misses;
+        return reads == 0 ? 0 : (double) (hits + diskHits) / reads;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + " diskHits=" + diskHits + " misses=" + misses + " evictions=" + evictions
+                + " expirations=" + expirations + " size=" + size;
+    }
+}
@@ -0,0 +1,61 @@
+package com.browseract.workflow.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Disk tier of a {@link ResultCache}: one JSON file per entry, {@code <directory>/<kind>/<id>.json}.
+ * Files are written to a temporary name then moved, so a reader never sees a partial file.
+ */
+class DiskCache {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path directory;
+
+    DiskCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the stored value, or null if there is none or it is older than maxAgeMillis.
+     */
+    <T> T read(String kind, long id, ObjectReader reader, long maxAgeMillis) throws IOException {
+        Path file = file(kind, id);
+        try {
+            if (maxAgeMillis != LruCache.NEVER
+                    && Files.getLastModifiedTime(file).toMillis() + maxAgeMillis <= System.currentTimeMillis()) {
+                return null;
+            }
+            return reader.readValue(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    void write(String kind, long id, Object value) throws IOException {
+        Path file = file(kind, id);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), id + "-", ".tmp");
+        try {
+            Files.write(temp, objectMapper.writeValueAsBytes(value));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    void delete(String kind, long id) throws IOException {
+        Files.deleteIfExists(file(kind, id));
+    }
+
+    private Path file(String kind, long id) {
+        return directory.resolve(kind).resolve(id + ".json");
+    }
+}
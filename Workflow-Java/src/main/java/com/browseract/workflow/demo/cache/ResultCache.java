@@ -0,0 +1,202 @@
+package com.browseract.workflow.demo.cache;
+
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.Workflow;
+import com.browseract.workflow.demo.util.Threads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of get-task and get-workflow answers.
+ * <p>
+ * A task in a terminal state never changes, so it is kept until evicted by the size bound of the memory tier,
+ * and written to the disk tier when one is configured. Tasks still in progress are kept for
+ * {@link CacheConfig#getTaskTtlMillis()} only, and workflows for {@link CacheConfig#getWorkflowTtlMillis()}.
+ * <p>
+ * The disk tier is read and written on a thread of its own, in the order of the calls, so that neither the
+ * caller nor the transport threads wait for the disk. The cache is best effort: a disk tier that cannot be read
+ * or written falls back to the API.
+ * <p>
+ * The answers are shared: every caller of the same task or workflow gets the same instance, which must be treated
+ * as read-only.
+ */
+public class ResultCache {
+
+    private static final String TASK = "task";
+    private static final String WORKFLOW = "workflow";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader TASK_READER = objectMapper.readerFor(Task.class);
+    private static final ObjectReader WORKFLOW_READER = objectMapper.readerFor(Workflow.class);
+
+    private final CacheConfig config;
+    private final LruCache<String, Object> memory;
+    private final DiskCache disk;
+    private final ExecutorService diskThread;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache() {
+        this(new CacheConfig());
+    }
+
+    public ResultCache(CacheConfig config) {
+        this.config = config;
+        this.memory = new LruCache<>(config.getMaxEntries());
+        this.disk = config.getDirectory() == null ? null : new DiskCache(config.getDirectory());
+        this.diskThread = disk == null ? null : Executors.newSingleThreadExecutor(Threads.daemonThreads("result-cache-disk"));
+    }
+
+    /**
+     * Returns the cached task, or loads it and caches the answer. The task is shared, see the class comment.
+     */
+    public CompletableFuture<Task> getTask(long taskId, Supplier<CompletableFuture<Task>> loader) {
+        String key = TASK + taskId;
+        Task task = (Task) memory.get(key, System.currentTimeMillis());
+        if (task != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(task);
+        }
+        if (disk == null) {
+            return loadTask(loader);
+        }
+        return CompletableFuture.supplyAsync(() -> this.<Task>readDisk(TASK, taskId, TASK_READER, LruCache.NEVER), diskThread)
+                .thenCompose(stored -> {
+                    if (stored == null) {
+                        return loadTask(loader);
+                    }
+                    diskHits.increment();
+                    memory.put(key, stored, LruCache.NEVER);
+                    return CompletableFuture.completedFuture(stored);
+                });
+    }
+
+    /**
+     * Returns the cached workflow, or loads it and caches the answer. The workflow is shared, see the class comment.
+     */
+    public CompletableFuture<Workflow> getWorkflow(long workflowId, Supplier<CompletableFuture<Workflow>> loader) {
+        String key = WORKFLOW + workflowId;
+        Workflow workflow = (Workflow) memory.get(key, System.currentTimeMillis());
+        if (workflow != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(workflow);
+        }
+        if (disk == null) {
+            return loadWorkflow(loader);
+        }
+        return CompletableFuture.supplyAsync(() -> this.<Workflow>readDisk(WORKFLOW, workflowId, WORKFLOW_READER,
+                        config.getWorkflowTtlMillis()), diskThread)
+                .thenCompose(stored -> {
+                    if (stored == null) {
+                        return loadWorkflow(loader);
+                    }
+                    diskHits.increment();
+                    memory.put(key, stored, System.currentTimeMillis() + config.getWorkflowTtlMillis());
+                    return CompletableFuture.completedFuture(stored);
+                });
+    }
+
+    /**
+     * Cache a task obtained elsewhere, e.g. from a callback.
+     */
+    public void putTask(Task task) {
+        if (task.getStatus() != null && task.getStatus().isTerminal()) {
+            memory.put(TASK + task.getId(), task, LruCache.NEVER);
+            writeDisk(TASK, task.getId(), task);
+        } else if (config.getTaskTtlMillis() > 0) {
+            memory.put(TASK + task.getId(), task, System.currentTimeMillis() + config.getTaskTtlMillis());
+        }
+    }
+
+    public void putWorkflow(Workflow workflow) {
+        if (config.getWorkflowTtlMillis() > 0) {
+            memory.put(WORKFLOW + workflow.getId(), workflow, System.currentTimeMillis() + config.getWorkflowTtlMillis());
+            writeDisk(WORKFLOW, workflow.getId(), workflow);
+        }
+    }
+
+    /**
+     * Drop a task, e.g. after stopping or resuming it.
+     */
+    public void invalidateTask(long taskId) {
+        memory.remove(TASK + taskId);
+        deleteDisk(TASK, taskId);
+    }
+
+    public void invalidateWorkflow(long workflowId) {
+        memory.remove(WORKFLOW + workflowId);
+        deleteDisk(WORKFLOW, workflowId);
+    }
+
+    /**
+     * Drop every entry of the memory tier, the disk tier is kept.
+     */
+    public void clear() {
+        memory.clear();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), diskHits.sum(), misses.sum(), memory.getEvictions(), memory.getExpirations(),
+                memory.size());
+    }
+
+    private CompletableFuture<Task> loadTask(Supplier<CompletableFuture<Task>> loader) {
+        misses.increment();
+        return loader.get().thenApply(loaded -> {
+            putTask(loaded);
+            return loaded;
+        });
+    }
+
+    private CompletableFuture<Workflow> loadWorkflow(Supplier<CompletableFuture<Workflow>> loader) {
+        misses.increment();
+        return loader.get().thenApply(loaded -> {
+            putWorkflow(loaded);
+            return loaded;
+        });
+    }
+
+    private <T> T readDisk(String kind, long id, ObjectReader reader, long maxAgeMillis) {
+        try {
+            return disk.read(kind, id, reader, maxAgeMillis);
+        } catch (IOException e) {
+            // unreadable entry, fetch it again
+            return null;
+        }
+    }
+
+    private void writeDisk(String kind, long id, Object value) {
+        if (disk == null) {
+            return;
+        }
+        diskThread.execute(() -> {
+            try {
+                disk.write(kind, id, value);
+            } catch (IOException e) {
+                // the memory tier still holds the value
+            }
+        });
+    }
+
+    private void deleteDisk(String kind, long id) {
+        if (disk == null) {
+            return;
+        }
+        diskThread.execute(() -> {
+            try {
+                disk.delete(kind, id);
+            } catch (IOException e) {
+                // a stale file is replaced by the next write of this entry
+            }
+        });
+    }
+}
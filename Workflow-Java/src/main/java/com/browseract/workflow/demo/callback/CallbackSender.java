@@ -0,0 +1,50 @@
+package com.browseract.workflow.demo.callback;
+
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.util.HttpTransport;
+import com.browseract.workflow.demo.util.HttpUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Local stand-in for the API side of the task callbacks, to drive a {@link CallbackServer} in tests
+ * or simulations without the real service.
+ * <p>
+ * It follows the documented delivery rules: the payload is the get-task answer posted as JSON,
+ * a 2xx answer is a success, and 5xx answers are retried up to 3 attempts in total.
+ */
+public class CallbackSender {
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpTransport transport;
+
+    public CallbackSender() {
+        this(HttpUtil.getTransport());
+    }
+
+    public CallbackSender(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Post the task to the callback URL.
+     *
+     * @return the HTTP status of the last attempt
+     */
+    public int send(String callbackUrl, Task task) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(task);
+        HttpTransport.HttpRequest request = new HttpTransport.HttpRequest("POST", callbackUrl, null, body, "application/json");
+        int status = -1;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            status = transport.execute(request, HttpTransport.Response::getCode);
+            if (status < 500) {
+                return status;
+            }
+        }
+        return status;
+    }
+}
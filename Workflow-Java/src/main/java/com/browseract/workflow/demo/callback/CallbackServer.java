@@ -0,0 +1,233 @@
+package com.browseract.workflow.demo.callback;
+
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.util.Threads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Embeddable HTTP server receiving the callback_url and status_change_callback_url notifications.
+ * <p>
+ * Connections are accepted by the selector loop of the JDK HTTP server, the payload is read and decoded
+ * into a {@link Task} on a small IO pool, and the answer is sent before any listener runs: listeners are
+ * dispatched to a separate worker pool, so the server always answers well within the 30 seconds required
+ * by the API. When the worker queue is full the server answers 503, which the API retries. On Java 21 the IO pool
+ * and the workers are virtual threads, so listeners may block, see {@link Threads}.
+ * <p>
+ * The API retries a callback up to 3 times on a 5xx answer, so the same payload may arrive more than once.
+ * Payloads already delivered within {@link CallbackServerConfig#getDedupeWindowMillis()} are acknowledged
+ * and dropped.
+ * <p>
+ * With a {@link CallbackServerConfig#getRegistry() registry}, the state of each task received is recorded in it
+ * before the listeners run, which also notifies the listeners of the registry.
+ * <pre>
+ * CallbackServer server = new CallbackServer(config);
+ * server.addListener((path, task) -&gt; poller.update(task.getId(), task.getStatus()));
+ * server.start();
+ * </pre>
+ */
+public class CallbackServer implements Closeable {
+
+    private static final ObjectReader TASK_READER = new ObjectMapper().readerFor(Task.class);
+
+    private final CallbackServerConfig config;
+    private final List<TaskCallbackListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> delivered = new LinkedHashMap<>();
+    private final ReentrantLock deliveredLock = new ReentrantLock();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong listenerFailures = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService ioPool;
+    private ExecutorService workers;
+
+    public CallbackServer(CallbackServerConfig config) {
+        this.config = config;
+    }
+
+    public void addListener(TaskCallbackListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TaskCallbackListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("already started");
+        }
+        InetSocketAddress address = config.getHost() == null
+                ? new InetSocketAddress(config.getPort())
+                : new InetSocketAddress(config.getHost(), config.getPort());
+        // on virtual threads a slow client no longer holds one of a few IO threads
+        ioPool = Threads.isVirtual() ? Threads.newBlockingExecutor("callback-io")
+                : Executors.newFixedThreadPool(config.getIoThreads(), Threads.daemonThreads("callback-io"));
+        workers = Threads.newBoundedExecutor("callback-worker", config.getWorkerThreads(), config.getMaxQueuedCallbacks());
+
+        server = HttpServer.create(address, 0);
+        server.createContext(config.getPath(), this::handle);
+        server.setExecutor(ioPool);
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on, useful when it was started on port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getListenerFailures() {
+        return listenerFailures.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            ioPool.shutdown();
+            workers.shutdown();
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            Task task;
+            try {
+                task = TASK_READER.readValue(body);
+            } catch (IOException e) {
+                // a 4xx is not retried by the API, which is right for a payload that will never decode
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            received.incrementAndGet();
+
+            String key = dedupeKey(task, body);
+            if (!markDelivered(key)) {
+                duplicates.incrementAndGet();
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            try {
+                workers.execute(() -> dispatch(path, task));
+            } catch (RejectedExecutionException e) {
+                forget(key);
+                rejected.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(String path, Task task) {
+        if (config.getRegistry() != null && task.getStatus() != null) {
+            config.getRegistry().update(task.getId(), task.getStatus());
+        }
+        for (TaskCallbackListener listener : listeners) {
+            try {
+                listener.onTaskCallback(path, task);
+            } catch (RuntimeException e) {
+                listenerFailures.incrementAndGet();
+            }
+        }
+    }
+
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (body.size() + read > config.getMaxBodyBytes()) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static String dedupeKey(Task task, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return task.getId() + ":" + task.getStatus() + ":" + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Returns false if the same payload was delivered within the dedupe window.
+     */
+    private boolean markDelivered(String key) {
+        long now = System.currentTimeMillis();
+        deliveredLock.lock();
+        try {
+            // entries are in insertion order, so expired ones are at the head
+            Iterator<Long> times = delivered.values().iterator();
+            while (times.hasNext()) {
+                long time = times.next();
+                if (now - time <= config.getDedupeWindowMillis() && delivered.size() <= config.getMaxDedupeEntries()) {
+                    break;
+                }
+                times.remove();
+            }
+            return delivered.putIfAbsent(key, now) == null;
+        } finally {
+            deliveredLock.unlock();
+        }
+    }
+
+    private void forget(String key) {
+        deliveredLock.lock();
+        try {
+            delivered.remove(key);
+        } finally {
+            deliveredLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.browseract.workflow.demo.callback;
+
+import com.browseract.workflow.demo.tracking.TaskRegistry;
+
+/**
+ * Settings of a {@link CallbackServer}.
+ */
+public class CallbackServerConfig {
+
+    /**
+     * Address to listen on, null listens on all interfaces.
+     */
+    private String host;
+
+    /**
+     * Port to listen on, 0 picks a free port.
+     */
+    private int port = 8080;
+
+    /**
+     * Path prefix handled by the server, every callback posted below it is accepted.
+     */
+    private String path = "/";
+
+    /**
+     * Threads reading and decoding the callback requests.
+     */
+    private int ioThreads = 2;
+
+    /**
+     * Threads running the listeners.
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Callbacks waiting for a worker. When the queue is full the server answers 503,
+     * and the API sends the callback again later.
+     */
+    private int maxQueuedCallbacks = 10_000;
+
+    /**
+     * How long a delivered callback is remembered to drop the retries of the same payload.
+     */
+    private long dedupeWindowMillis = 10 * 60_000;
+
+    /**
+     * Maximum number of delivered callbacks remembered for deduplication.
+     */
+    private int maxDedupeEntries = 100_000;
+
+    /**
+     * Largest accepted payload, a get-task answer with many steps can be large.
+     */
+    private int maxBodyBytes = 16 * 1024 * 1024;
+
+    /**
+     * Registry updated with the state of each received task before the listeners run. When null,
+     * callbacks only reach the listeners.
+     */
+    private TaskRegistry registry;
+
+    // Getters and Setters
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getMaxQueuedCallbacks() {
+        return maxQueuedCallbacks;
+    }
+
+    public void setMaxQueuedCallbacks(int maxQueuedCallbacks) {
+        this.maxQueuedCallbacks = maxQueuedCallbacks;
+    }
+
+    public long getDedupeWindowMillis() {
+        return dedupeWindowMillis;
+    }
+
+    public void setDedupeWindowMillis(long dedupeWindowMillis) {
+        this.dedupeWindowMillis = dedupeWindowMillis;
+    }
+
+    public int getMaxDedupeEntries() {
+        return maxDedupeEntries;
+    }
+
+    public void setMaxDedupeEntries(int maxDedupeEntries) {
+        this.maxDedupeEntries = maxDedupeEntries;
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public TaskRegistry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(TaskRegistry registry) {
+        this.registry = registry;
+    }
+}
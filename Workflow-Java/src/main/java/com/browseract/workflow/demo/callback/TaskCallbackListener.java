@@ -0,0 +1,16 @@
+package com.browseract.workflow.demo.callback;
+
+import com.browseract.workflow.demo.model.Task;
+
+/**
+ * Receives the tasks pushed to a {@link CallbackServer}.
+ * Callbacks run on the server's worker pool, after the HTTP answer has been sent.
+ */
+public interface TaskCallbackListener {
+
+    /**
+     * @param path  the path the callback was posted to, e.g. to tell callback_url from status_change_callback_url
+     * @param task  the payload, identical to the get-task answer
+     */
+    void onTaskCallback(String path, Task task);
+}
@@ -0,0 +1,309 @@
+package com.browseract.workflow.demo.client;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of asynchronous calls in flight without blocking the submitting threads,
+ * and sizes that bound from how the service answers.
+ * <p>
+ * Calls over the limit are queued per {@link Priority} and started by whichever thread completes a running call,
+ * highest priority first, so any number of pending calls costs a queue entry instead of a thread.
+ * {@link Priority#CONTROL} calls are not held by the adaptive limit, only by the upper bound.
+ * Cancelling the future of a call removes it from its queue, or cancels the running call and frees its slot.
+ * <p>
+ * The limit follows AIMD with a latency gradient: it grows by about one per round trip while the limit is in use
+ * and the recent latency stays near its long-term average, and is multiplied by the backoff ratio, at most once
+ * per round trip, when the service answers 429, 5xx or drops the connection, or when the recent latency climbs
+ * past the tolerance over the long-term average, which means calls queue on the server side. Until the first
+ * decrease it grows by one per call instead (slow start), doubling each round trip to find the capacity quickly.
+ */
+public class AdaptiveLimiter {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    // weights of a new latency sample in the recent (about 10 calls) and long-term (about 500 calls) averages
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.002;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable>[] waiting;
+    // drain requests not yet served, only the thread that raised it from 0 drains
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private volatile int limit;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private long lastDecrease;
+    private long decreases;
+
+    /**
+     * A fixed limit.
+     */
+    public AdaptiveLimiter(int maxInFlight) {
+        this(maxInFlight, maxInFlight, maxInFlight, 1, Double.MAX_VALUE);
+    }
+
+    /**
+     * An adaptive limit, bounded above by maxInFlight.
+     */
+    public AdaptiveLimiter(LimiterConfig config, int maxInFlight) {
+        this(config.getInitialLimit(), config.getMinLimit(), maxInFlight, config.getBackoffRatio(), config.getLatencyTolerance());
+    }
+
+    @SuppressWarnings("unchecked")
+    private AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxLimit);
+        }
+        this.minLimit = Math.max(1, Math.min(minLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(initialLimit, maxLimit));
+        this.limit = (int) estimatedLimit;
+        // nanoTime has an arbitrary origin, 0 would not be a time long ago; no round trip is known yet
+        this.lastDecrease = System.nanoTime();
+        this.waiting = new Queue[PRIORITIES.length];
+        for (int i = 0; i < waiting.length; i++) {
+            waiting[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Start the call now if a slot is free, otherwise as soon as one is released and no call of a higher
+     * priority is waiting.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Supplier<CompletableFuture<T>> call) {
+        Queue<Runnable> queue = waiting[priority.ordinal()];
+        Pending<T> pending = new Pending<>(call);
+        queue.add(pending);
+        pending.result.whenComplete((value, error) -> {
+            if (pending.result.isCancelled() && !queue.remove(pending)) {
+                // already started: cancel the transport call, its completion frees the slot
+                CompletableFuture<T> running = pending.running;
+                if (running != null) {
+                    running.cancel(true);
+                }
+            }
+        });
+        drain();
+        return pending.result;
+    }
+
+    /**
+     * Returns the current limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxInFlight() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getWaiting() {
+        int count = 0;
+        for (Queue<Runnable> queue : waiting) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    public int getWaiting(Priority priority) {
+        return waiting[priority.ordinal()].size();
+    }
+
+    /**
+     * Returns the number of times the limit was reduced.
+     */
+    public long getDecreases() {
+        lock.lock();
+        try {
+            return decreases;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> void start(Pending<T> pending) {
+        CompletableFuture<T> result = pending.result;
+        if (result.isDone()) {
+            // cancelled between its poll and now
+            inFlight.decrementAndGet();
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> running;
+        try {
+            running = pending.call.get();
+        } catch (Throwable e) {
+            running = Futures.failed(e);
+        }
+        pending.running = running;
+        if (result.isCancelled()) {
+            // cancelled while the call was being sent, after the check of the cancelling thread
+            running.cancel(true);
+        }
+        running.whenComplete((value, error) -> {
+            int concurrency = inFlight.getAndDecrement();
+            onComplete(System.nanoTime() - start, concurrency, error);
+            drain();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void onComplete(long rtt, int concurrency, Throwable error) {
+        if (error == null) {
+            onSample(rtt, concurrency);
+            return;
+        }
+        Throwable cause = Futures.unwrap(error);
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        WorkflowApiException apiError = WorkflowApiException.from(cause);
+        if (cause instanceof IOException
+                || apiError != null && (apiError.getHttpStatus() == 429 || apiError.isServerError())) {
+            onDrop();
+        } else {
+            // a client error still measures how fast the service answers
+            onSample(rtt, concurrency);
+        }
+    }
+
+    private void onSample(long rtt, int concurrency) {
+        lock.lock();
+        try {
+            if (longRtt == 0) {
+                shortRtt = rtt;
+                longRtt = rtt;
+            }
+            shortRtt += (rtt - shortRtt) * SHORT_WEIGHT;
+            longRtt += (rtt - longRtt) * LONG_WEIGHT;
+            if (longRtt > 2 * shortRtt) {
+                // the queue drained, let the baseline follow quickly
+                longRtt = longRtt * 0.95 + shortRtt * 0.05;
+            }
+
+            if (shortRtt > latencyTolerance * longRtt) {
+                decrease();
+            } else if (concurrency * 2 >= estimatedLimit) {
+                // only grow a limit that is in use, an idle client gives no evidence that more would be served
+                setLimit(estimatedLimit + (decreases == 0 ? 1 : 1 / estimatedLimit));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onDrop() {
+        lock.lock();
+        try {
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        // one decrease per round trip, the answers of calls sent before it carry no news
+        if (now - lastDecrease < shortRtt) {
+            return;
+        }
+        lastDecrease = now;
+        decreases++;
+        setLimit(estimatedLimit * backoffRatio);
+    }
+
+    private void setLimit(double value) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, value));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Start the waiting calls the limit allows. A call completing at once, e.g. failing before it is sent, would
+     * drain again from within its start: that drain, and those of other threads, are left to the thread already
+     * draining, which goes around once more, so the stack stays flat whatever the number of calls queued.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            drainWaiting();
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void drainWaiting() {
+        while (true) {
+            Queue<Runnable> queue = null;
+            for (Queue<Runnable> candidate : waiting) {
+                if (!candidate.isEmpty()) {
+                    queue = candidate;
+                    break;
+                }
+            }
+            if (queue == null) {
+                return;
+            }
+            int current = inFlight.get();
+            if (current >= (queue == waiting[Priority.CONTROL.ordinal()] ? maxLimit : limit)) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = queue.poll();
+            if (next == null) {
+                // removed by a cancellation between the check and the poll
+                inFlight.decrementAndGet();
+                continue;
+            }
+            next.run();
+        }
+    }
+
+    /**
+     * A submitted call, queued until it gets a slot.
+     */
+    private final class Pending<T> implements Runnable {
+        final Supplier<CompletableFuture<T>> call;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        volatile CompletableFuture<T> running;
+
+        Pending(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            start(this);
+        }
+    }
+}
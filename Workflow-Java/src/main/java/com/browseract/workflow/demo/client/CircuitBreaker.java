@@ -0,0 +1,146 @@
+package com.browseract.workflow.demo.client;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stops sending calls while the API is degraded.
+ * <p>
+ * The breaker keeps the outcome of the last {@code windowSize} calls. When the share of failures reaches the
+ * threshold it opens: calls are refused for {@code openMillis}, then one probe call is let through. A successful
+ * probe closes the breaker, a failed one opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, long openMillis) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+    }
+
+    /**
+     * Whether a call may be sent now. A true answer in the half-open state reserves the probe,
+     * the caller must then report its outcome.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() - openedAt < openMillis) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probing = false;
+                    // fall through
+                default:
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                reset();
+            } else {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && recorded == outcomes.length && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a call that ended without an outcome, e.g. cancelled, so that a half-open breaker may send another
+     * probe.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                probing = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        probing = false;
+        reset();
+    }
+
+    private void reset() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * A read refused without being sent, because most recent calls to the API failed.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final Endpoint endpoint;
+
+    public CircuitOpenException(Endpoint endpoint) {
+        super(endpoint.getPath() + " not sent: the API is failing, circuit open");
+        this.endpoint = endpoint;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+}
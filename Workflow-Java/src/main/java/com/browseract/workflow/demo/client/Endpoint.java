@@ -0,0 +1,47 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * The workflow API endpoints, see https://www.browseract.com/reception/integrations/api-workflow
+ */
+public enum Endpoint {
+    RUN_TASK("POST", "run-task", Priority.BULK),
+    STOP_TASK("PUT", "stop-task", Priority.CONTROL),
+    RESUME_TASK("PUT", "resume-task", Priority.CONTROL),
+    GET_TASK("GET", "get-task", Priority.INTERACTIVE),
+    GET_TASK_STATUS("GET", "get-task-status", Priority.BULK),
+    LIST_TASKS("GET", "list-tasks", Priority.INTERACTIVE),
+    LIST_WORKFLOWS("GET", "list-workflows", Priority.INTERACTIVE),
+    GET_WORKFLOW("GET", "get-workflow", Priority.INTERACTIVE);
+
+    private final String method;
+    private final String path;
+    private final Priority priority;
+
+    Endpoint(String method, String path, Priority priority) {
+        this.method = method;
+        this.path = path;
+        this.priority = priority;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the priority of the calls to this endpoint when they wait for the concurrency limit.
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Whether the endpoint only reads state, so that sending it twice has no side effect.
+     */
+    public boolean isIdempotent() {
+        return "GET".equals(method);
+    }
+}
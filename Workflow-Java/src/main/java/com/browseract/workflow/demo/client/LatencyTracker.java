@@ -0,0 +1,57 @@
+package com.browseract.workflow.demo.client;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recent latencies of one endpoint, to derive the hedge delay from their distribution.
+ * Keeps the last {@value #SAMPLES} samples and recomputes the percentile every {@value #REFRESH} samples.
+ */
+class LatencyTracker {
+
+    private static final int SAMPLES = 512;
+    private static final int REFRESH = 64;
+
+    private final double percentile;
+    private final long[] samples = new long[SAMPLES];
+    private int recorded;
+    private int next;
+    private int sinceRefresh;
+    private long cached = -1;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long millis) {
+        lock.lock();
+        try {
+            samples[next] = millis;
+            next = (next + 1) % SAMPLES;
+            if (recorded < SAMPLES) {
+                recorded++;
+            }
+            if (++sinceRefresh >= REFRESH) {
+                sinceRefresh = 0;
+                long[] sorted = Arrays.copyOf(samples, recorded);
+                Arrays.sort(sorted);
+                cached = sorted[Math.min(sorted.length - 1, (int) (percentile * sorted.length))];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latency percentile in milliseconds, or -1 while too few calls have been seen.
+     */
+    long getPercentile() {
+        lock.lock();
+        try {
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
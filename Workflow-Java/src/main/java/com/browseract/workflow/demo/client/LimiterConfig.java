@@ -0,0 +1,62 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * Settings of the adaptive concurrency limit of an {@link AdaptiveLimiter}.
+ * The upper bound is {@link WorkflowClientConfig#getMaxInFlight()}.
+ */
+public class LimiterConfig {
+
+    /**
+     * Limit used until the first answers are observed.
+     */
+    private int initialLimit = 16;
+
+    /**
+     * The limit never shrinks below this value.
+     */
+    private int minLimit = 2;
+
+    /**
+     * Factor applied to the limit when the service pushes back (429, 5xx, I/O error) or latency rises.
+     */
+    private double backoffRatio = 0.8;
+
+    /**
+     * Ratio of the recent latency to its long-term average above which the service is considered queueing,
+     * and the limit stops growing and shrinks.
+     */
+    private double latencyTolerance = 2.0;
+
+    // Getters and Setters
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+}
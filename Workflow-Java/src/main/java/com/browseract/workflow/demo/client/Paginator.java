@@ -0,0 +1,238 @@
+package com.browseract.workflow.demo.client;
+
+import com.browseract.workflow.demo.model.Page;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks every item of list-tasks or list-workflows.
+ * <p>
+ * The sequential {@link #iterator()} and {@link #stream()} keep {@link PagingConfig#getPrefetchPages()} page
+ * requests in flight while the caller consumes the current page. The page size starts small so the first items
+ * arrive quickly, and doubles whenever the offset reached is a multiple of the larger size, up to
+ * {@link PagingConfig#getMaxPageSize()}, so that page numbers stay aligned on the items. When the server answers
+ * with a smaller limit than asked, the walk carries on at that size. It ends once total_count items were covered
+ * or a page comes back empty.
+ * <p>
+ * {@link #parallelStream()} reads the first page to learn the total, then splits the remaining page range
+ * across the fork-join pool.
+ * <p>
+ * Pages are read live: tasks created during the walk shift the following pages, so an item may be seen twice.
+ */
+public class Paginator<T> implements Iterable<T> {
+
+    /**
+     * Fetches one page, e.g. {@code client::listWorkflows}.
+     */
+    public interface PageFetcher<T> {
+        CompletableFuture<Page<T>> fetch(int page, int limit);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final PagingConfig config;
+
+    public Paginator(PageFetcher<T> fetcher) {
+        this(fetcher, new PagingConfig());
+    }
+
+    public Paginator(PageFetcher<T> fetcher, PagingConfig config) {
+        this.fetcher = fetcher;
+        this.config = config;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PrefetchingIterator();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public Stream<T> parallelStream() {
+        int size = config.getMaxPageSize();
+        Page<T> first = fetcher.fetch(1, size).join();
+        if (first.getLimit() > 0 && first.getLimit() < size) {
+            // total_pages counts pages of the size the server allows
+            size = first.getLimit();
+        }
+        Stream<T> firstItems = items(first).stream();
+        if (first.getTotal_pages() <= 1) {
+            return firstItems.parallel();
+        }
+        return Stream.concat(firstItems, StreamSupport.stream(new PageRangeSpliterator(2, first.getTotal_pages() + 1, size), true))
+                .parallel();
+    }
+
+    private static <T> List<T> items(Page<T> page) {
+        return page.getItems() == null ? Collections.<T>emptyList() : page.getItems();
+    }
+
+    private class PrefetchingIterator implements Iterator<T> {
+        private final ArrayDeque<Request> pending = new ArrayDeque<>();
+        private Iterator<T> current = Collections.emptyIterator();
+        private long nextOffset;
+        private int maxPageSize = Math.max(1, config.getMaxPageSize());
+        private int pageSize = Math.min(Math.max(1, config.getInitialPageSize()), maxPageSize);
+        private long total = -1;
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                Request request = pending.poll();
+                if (request == null) {
+                    return false;
+                }
+                Page<T> page = request.future.join();
+                total = page.getTotal_count();
+                List<T> items = items(page);
+                if (items.isEmpty()) {
+                    // past the last item, drop what was requested further
+                    exhausted = true;
+                    cancelPending();
+                    continue;
+                }
+                if (page.getLimit() > 0 && page.getLimit() < request.size) {
+                    items = realign(request, page, items);
+                }
+                current = items.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = current.next();
+            fill();
+            return item;
+        }
+
+        /**
+         * The server capped the page size: it answered the page of its own size, which starts at another offset
+         * than asked. Keep the items not seen yet and carry on after this page at the server's size.
+         */
+        private List<T> realign(Request request, Page<T> page, List<T> items) {
+            cancelPending();
+            maxPageSize = page.getLimit();
+            pageSize = maxPageSize;
+            long start = (long) (Math.max(1, page.getPage()) - 1) * pageSize;
+            nextOffset = start + pageSize;
+            int seen = (int) Math.max(0, Math.min(items.size(), request.offset - start));
+            return items.subList(seen, items.size());
+        }
+
+        private void cancelPending() {
+            for (Request extra : pending) {
+                extra.future.cancel(true);
+            }
+            pending.clear();
+        }
+
+        private void fill() {
+            while (!exhausted && pending.size() < Math.max(1, config.getPrefetchPages())) {
+                if (total >= 0 && nextOffset >= total) {
+                    exhausted = true;
+                    return;
+                }
+                int larger = Math.min(pageSize * 2, maxPageSize);
+                if (larger > pageSize && nextOffset > 0 && nextOffset % larger == 0) {
+                    pageSize = larger;
+                }
+                int page = (int) (nextOffset / pageSize) + 1;
+                pending.add(new Request(nextOffset, pageSize, fetcher.fetch(page, pageSize)));
+                nextOffset += pageSize;
+                if (total < 0) {
+                    // until the first page tells the total, only one request is sent
+                    return;
+                }
+            }
+        }
+    }
+
+    private class Request {
+        final long offset;
+        final int size;
+        final CompletableFuture<Page<T>> future;
+
+        Request(long offset, int size, CompletableFuture<Page<T>> future) {
+            this.offset = offset;
+            this.size = size;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Covers the pages [from, to) of a fixed size, split in halves for parallel streams.
+     * The next page is requested while the current one is consumed.
+     */
+    private class PageRangeSpliterator implements Spliterator<T> {
+        private final int size;
+        private final int to;
+        private int next;
+        private CompletableFuture<Page<T>> prefetched;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        PageRangeSpliterator(int from, int to, int size) {
+            this.next = from;
+            this.to = to;
+            this.size = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!current.hasNext()) {
+                if (prefetched == null) {
+                    if (next >= to) {
+                        return false;
+                    }
+                    prefetched = fetcher.fetch(next++, size);
+                }
+                Page<T> page = prefetched.join();
+                prefetched = next < to ? fetcher.fetch(next++, size) : null;
+                current = items(page).iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (prefetched != null || current.hasNext()) {
+                return null;
+            }
+            int remaining = to - next;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = next + remaining / 2;
+            Spliterator<T> prefix = new PageRangeSpliterator(next, middle, size);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) (to - next) * size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+    }
+}
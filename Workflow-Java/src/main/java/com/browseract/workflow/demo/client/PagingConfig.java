@@ -0,0 +1,48 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * Settings of a {@link Paginator}.
+ */
+public class PagingConfig {
+
+    /**
+     * Number of pages requested ahead of the one being consumed.
+     * Memory holds at most this many pages plus the current one.
+     */
+    private int prefetchPages = 2;
+
+    /**
+     * Size of the first page, kept small so that the first items arrive quickly.
+     */
+    private int initialPageSize = 50;
+
+    /**
+     * Largest page size, the API accepts up to 500 items per page.
+     */
+    private int maxPageSize = 500;
+
+    // Getters and Setters
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    public void setPrefetchPages(int prefetchPages) {
+        this.prefetchPages = prefetchPages;
+    }
+
+    public int getInitialPageSize() {
+        return initialPageSize;
+    }
+
+    public void setInitialPageSize(int initialPageSize) {
+        this.initialPageSize = initialPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+}
@@ -0,0 +1,19 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * Order in which waiting calls are started by the {@link AdaptiveLimiter}, highest first.
+ */
+public enum Priority {
+    /**
+     * stop-task and resume-task, which must take effect even while the client is saturated.
+     */
+    CONTROL,
+    /**
+     * One-off reads: get-task, get-workflow and the list endpoints.
+     */
+    INTERACTIVE,
+    /**
+     * High-volume traffic: run-task submissions and get-task-status polling.
+     */
+    BULK
+}
@@ -0,0 +1,259 @@
+package com.browseract.workflow.demo.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedging, retries and circuit breaking for the read endpoints, which can be sent twice without side effect.
+ * <p>
+ * A read still running after the {@link ReadPolicyConfig#getHedgePercentile() percentile} latency of its endpoint
+ * gets a duplicate, and the first answer wins. A read failing with a server error, a throttling answer or an
+ * I/O error other than an undecodable answer is sent again after a jittered backoff, or after the Retry-After
+ * delay when the server sent one.
+ * Hedges and retries both draw from one {@link RetryBudget}, so extra calls stay a small share of the traffic
+ * when the API struggles, and a {@link CircuitBreaker} fails reads fast once most calls fail.
+ * Other failures, e.g. an unknown task ID, complete the read at once. Once a call of an attempt answers, the other
+ * one is cancelled: dropped from the limiter queue if it is still waiting there, otherwise cancelled in the transport,
+ * which with OkHttp aborts the request and releases its connection.
+ */
+public class ReadPolicy {
+
+    // only schedules hedges and retries, the calls run on the transport threads
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "read-policy-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadPolicyConfig config;
+    private final RetryBudget budget;
+    private final CircuitBreaker breaker;
+    private final Map<Endpoint, LatencyTracker> latencies = new EnumMap<>(Endpoint.class);
+
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ReadPolicy() {
+        this(new ReadPolicyConfig());
+    }
+
+    public ReadPolicy(ReadPolicyConfig config) {
+        this.config = config;
+        this.budget = new RetryBudget(config.getRetryBudgetRatio(), config.getMinRetriesPerSecond());
+        this.breaker = new CircuitBreaker(config.getFailureRateThreshold(), config.getCircuitWindowSize(), config.getOpenMillis());
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (endpoint.isIdempotent()) {
+                latencies.put(endpoint, new LatencyTracker(config.getHedgePercentile()));
+            }
+        }
+    }
+
+    /**
+     * Run a read with hedging and retries.
+     *
+     * @param call sends the read once, it is invoked again for each hedge and retry
+     */
+    public <T> CompletableFuture<T> execute(Endpoint endpoint, Supplier<CompletableFuture<T>> call) {
+        if (!endpoint.isIdempotent()) {
+            throw new IllegalArgumentException(endpoint.getPath() + " is not idempotent");
+        }
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        new Execution<>(endpoint, call, result).attempt(1);
+        return result;
+    }
+
+    /**
+     * Returns the number of duplicate calls sent for slow reads.
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of reads refused by the open circuit.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Whether the failure tells about the health of the API, so that the same call may succeed later.
+     * An answer that cannot be decoded is not: the API answered, and would answer the same again.
+     */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof JsonProcessingException) {
+            return false;
+        }
+        if (error instanceof IOException) {
+            return true;
+        }
+        WorkflowApiException apiError = WorkflowApiException.from(error);
+        return apiError != null && (apiError.isServerError() || apiError.isThrottled());
+    }
+
+    private long backoff(int attempt, Throwable error) {
+        WorkflowApiException apiError = WorkflowApiException.from(error);
+        if (apiError != null && apiError.getRetryAfterMillis() > 0) {
+            return apiError.getRetryAfterMillis();
+        }
+        long bound = Math.min(config.getMaxBackoffMillis(), config.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private class Execution<T> {
+        private final Endpoint endpoint;
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result;
+
+        Execution(Endpoint endpoint, Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+            this.endpoint = endpoint;
+            this.call = call;
+            this.result = result;
+        }
+
+        void attempt(int attempt) {
+            if (!breaker.tryAcquire()) {
+                rejected.increment();
+                result.completeExceptionally(new CircuitOpenException(endpoint));
+                return;
+            }
+            Attempt state = new Attempt(attempt);
+            send(state);
+            long delay = latencies.get(endpoint).getPercentile();
+            if (config.isHedging() && delay >= 0) {
+                timer.schedule(() -> hedge(state), Math.max(delay, config.getMinHedgeDelayMillis()), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void hedge(Attempt state) {
+            if (result.isDone() || !state.join()) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                state.leave();
+                return;
+            }
+            hedges.increment();
+            send(state);
+        }
+
+        private void send(Attempt state) {
+            long start = System.nanoTime();
+            CompletableFuture<T> sent = start();
+            state.add(sent);
+            sent.whenComplete((value, error) -> {
+                if (error == null) {
+                    latencies.get(endpoint).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    breaker.onSuccess();
+                    if (result.complete(value)) {
+                        state.cancelOthers(sent);
+                    }
+                    return;
+                }
+                Throwable cause = Futures.unwrap(error);
+                boolean retryable = isRetryable(cause);
+                if (cause instanceof CancellationException) {
+                    // the call tells nothing about the API, but it may hold the half-open probe
+                    breaker.release();
+                } else if (retryable) {
+                    breaker.onFailure();
+                } else {
+                    // the API answered, it is healthy even if the read failed
+                    breaker.onSuccess();
+                }
+                if (state.leave() > 0 || result.isDone()) {
+                    // the other call of the attempt may still succeed
+                    return;
+                }
+                if (!retryable || state.number >= config.getMaxAttempts() || !budget.tryWithdraw()) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                retries.increment();
+                timer.schedule(() -> attempt(state.number + 1), backoff(state.number, cause), TimeUnit.MILLISECONDS);
+            });
+        }
+
+        private CompletableFuture<T> start() {
+            try {
+                return call.get();
+            } catch (Throwable e) {
+                return Futures.failed(e);
+            }
+        }
+
+        /**
+         * The calls sent for one attempt: the first one and its hedge.
+         */
+        private class Attempt {
+            final int number;
+            private final AtomicInteger running = new AtomicInteger(1);
+            private final List<CompletableFuture<T>> sent = new CopyOnWriteArrayList<>();
+
+            Attempt(int number) {
+                this.number = number;
+            }
+
+            /**
+             * Count a hedge in, unless every call of the attempt has already failed.
+             */
+            boolean join() {
+                int current;
+                do {
+                    current = running.get();
+                    if (current == 0) {
+                        return false;
+                    }
+                } while (!running.compareAndSet(current, current + 1));
+                return true;
+            }
+
+            /**
+             * Returns the number of calls of the attempt still running.
+             */
+            int leave() {
+                return running.decrementAndGet();
+            }
+
+            void add(CompletableFuture<T> future) {
+                sent.add(future);
+            }
+
+            void cancelOthers(CompletableFuture<T> winner) {
+                for (CompletableFuture<T> future : sent) {
+                    if (future != winner) {
+                        future.cancel(true);
+                    }
+                }
+            }
+        }
+    }
+}
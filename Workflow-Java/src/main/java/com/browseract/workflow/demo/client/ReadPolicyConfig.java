@@ -0,0 +1,149 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * Settings of a {@link ReadPolicy}.
+ */
+public class ReadPolicyConfig {
+
+    /**
+     * Whether a duplicate of a slow read is sent once it has run longer than most reads of its endpoint.
+     */
+    private boolean hedging = true;
+
+    /**
+     * Latency percentile of the endpoint after which the duplicate is sent, 0.95 sends one for about 5% of reads.
+     */
+    private double hedgePercentile = 0.95;
+
+    /**
+     * Lower bound of the hedge delay, so that fast endpoints are not duplicated on noise.
+     */
+    private long minHedgeDelayMillis = 20;
+
+    /**
+     * Maximum number of attempts of a read, including the first one.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Upper bound of the first retry delay, the bound doubles with each attempt. The delay is drawn at random
+     * below the bound, unless the server sent Retry-After.
+     */
+    private long initialBackoffMillis = 100;
+
+    private long maxBackoffMillis = 5_000;
+
+    /**
+     * Share of the reads that may be retried or hedged, 0.1 allows one extra call per ten reads.
+     */
+    private double retryBudgetRatio = 0.1;
+
+    /**
+     * Extra calls allowed per second whatever the traffic, so that a quiet client can still retry.
+     */
+    private int minRetriesPerSecond = 10;
+
+    /**
+     * Failure rate of the recent calls above which the circuit opens and reads fail fast.
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * Number of recent calls the failure rate is computed on. The circuit stays closed until it is filled.
+     */
+    private int circuitWindowSize = 50;
+
+    /**
+     * Time the circuit stays open before a probe read is let through.
+     */
+    private long openMillis = 10_000;
+
+    // Getters and Setters
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public void setHedging(boolean hedging) {
+        this.hedging = hedging;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public long getMinHedgeDelayMillis() {
+        return minHedgeDelayMillis;
+    }
+
+    public void setMinHedgeDelayMillis(long minHedgeDelayMillis) {
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public int getMinRetriesPerSecond() {
+        return minRetriesPerSecond;
+    }
+
+    public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+        this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getCircuitWindowSize() {
+        return circuitWindowSize;
+    }
+
+    public void setCircuitWindowSize(int circuitWindowSize) {
+        this.circuitWindowSize = circuitWindowSize;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+}
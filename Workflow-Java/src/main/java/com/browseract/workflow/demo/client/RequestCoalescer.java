@@ -0,0 +1,77 @@
+package com.browseract.workflow.demo.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares one call between concurrent identical reads (single flight).
+ * <p>
+ * While a call for a key is in flight, further requests for the same key attach to it instead of sending
+ * their own, and every caller receives the same decoded answer once it arrives. The key is dropped when the
+ * call completes, so a later request sends a fresh call. Only reads may be coalesced, and the shared answer
+ * must not be modified by its callers.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Returns the answer of the call in flight for the key, or starts one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesce(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return copy(existing);
+        }
+        calls.increment();
+        CompletableFuture<T> running;
+        try {
+            running = call.get();
+        } catch (Throwable e) {
+            running = Futures.failed(e);
+        }
+        running.whenComplete((value, error) -> {
+            // removed before completing, so a caller woken by the answer does not attach to a finished call
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return copy(shared);
+    }
+
+    /**
+     * Returns the number of calls sent.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of requests answered by a call already in flight.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Each caller gets its own future, so that one cancelling it does not fail the others.
+     */
+    private static <T> CompletableFuture<T> copy(CompletableFuture<T> shared) {
+        return shared.thenApply(value -> value);
+    }
+}
@@ -0,0 +1,70 @@
+package com.browseract.workflow.demo.client;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the calls sent on top of the first attempts, so that retries cannot multiply the load
+ * on a struggling service.
+ * <p>
+ * Each read deposits {@code ratio} of a token and each retry or hedge withdraws a whole one. A trickle of
+ * {@code minPerSecond} tokens keeps retries possible at low traffic. The balance is capped at ten seconds
+ * of that trickle plus the deposits of the last few hundred reads, so that a quiet period does not bank a storm.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerMilli;
+    private final double capacity;
+    private double balance;
+    private long lastRefill = System.currentTimeMillis();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RetryBudget(double ratio, int minPerSecond) {
+        this.ratio = ratio;
+        this.minPerMilli = minPerSecond / 1000.0;
+        this.capacity = minPerSecond * 10.0 + ratio * 500;
+        this.balance = capacity;
+    }
+
+    /**
+     * Record a read, which earns a share of a retry.
+     */
+    public void deposit() {
+        lock.lock();
+        try {
+            balance = Math.min(capacity, balance + ratio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a token for a retry or hedge.
+     *
+     * @return false if the budget is exhausted and the extra call must not be sent
+     */
+    public boolean tryWithdraw() {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            balance = Math.min(capacity, balance + (now - lastRefill) * minPerMilli);
+            lastRefill = now;
+            if (balance < 1) {
+                return false;
+            }
+            balance--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getBalance() {
+        lock.lock();
+        try {
+            return balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.browseract.workflow.demo.client;
+
+import com.browseract.workflow.demo.RunTask;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes run-task bodies that share every field but input_parameters.
+ * <p>
+ * The template is serialized once by Jackson around an empty parameter list, and each body is that encoding with
+ * the parameters written in between. The parameters are measured first, then written straight into a byte array
+ * of the exact body length: one allocation per body, the one the transport sends, with no reflection, generator
+ * or intermediate buffer. The output is the same as Jackson's.
+ * <pre>
+ * RunTaskEncoder encoder = new RunTaskEncoder(template);
+ * client.runTask(encoder.encode(parameters));
+ * </pre>
+ */
+public final class RunTaskEncoder {
+
+    private static final ObjectWriter REQUEST_WRITER = new ObjectMapper().writerFor(RunTask.RunTaskRequest.class);
+    private static final byte[] EMPTY_PARAMETERS = "\"input_parameters\":[]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NAME = "{\"name\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VALUE = ",\"value\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Escape of each ASCII character: 0 for none, the letter of a short escape, or 'u' for a unicode escape.
+     */
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
+    private final long workflowId;
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    /**
+     * @param template the shared fields, its input_parameters are ignored
+     * @throws IllegalArgumentException if the template cannot be serialized
+     */
+    public RunTaskEncoder(RunTask.RunTaskRequest template) {
+        RunTask.RunTaskRequest empty = new RunTask.RunTaskRequest();
+        empty.setWorkflow_id(template.getWorkflow_id());
+        empty.setSave_browser_data(template.isSave_browser_data());
+        empty.setProfile_id(template.getProfile_id());
+        empty.setCallback_url(template.getCallback_url());
+        empty.setStatus_change_callback_url(template.getStatus_change_callback_url());
+        empty.setInput_parameters(Collections.emptyList());
+        byte[] encoded;
+        try {
+            encoded = REQUEST_WRITER.writeValueAsBytes(empty);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("cannot encode the run-task template", e);
+        }
+        int at = indexOf(encoded, EMPTY_PARAMETERS);
+        if (at < 0) {
+            throw new IllegalArgumentException("no input_parameters in the encoded template");
+        }
+        int split = at + EMPTY_PARAMETERS.length - 1;
+        this.workflowId = template.getWorkflow_id();
+        this.prefix = Arrays.copyOfRange(encoded, 0, split);
+        this.suffix = Arrays.copyOfRange(encoded, split, encoded.length);
+    }
+
+    public long getWorkflowId() {
+        return workflowId;
+    }
+
+    /**
+     * Returns the JSON body of a run-task call with the given parameters, which may be null.
+     */
+    public byte[] encode(List<RunTask.InputParameter> parameters) {
+        int size = prefix.length + suffix.length;
+        int count = parameters == null ? 0 : parameters.size();
+        for (int i = 0; i < count; i++) {
+            RunTask.InputParameter parameter = parameters.get(i);
+            size += NAME.length + VALUE.length + 1 + sizeOf(parameter.getName()) + sizeOf(parameter.getValue());
+        }
+        if (count > 1) {
+            size += count - 1;
+        }
+
+        byte[] body = new byte[size];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        int pos = prefix.length;
+        for (int i = 0; i < count; i++) {
+            RunTask.InputParameter parameter = parameters.get(i);
+            if (i > 0) {
+                body[pos++] = ',';
+            }
+            System.arraycopy(NAME, 0, body, pos, NAME.length);
+            pos = write(parameter.getName(), body, pos + NAME.length);
+            System.arraycopy(VALUE, 0, body, pos, VALUE.length);
+            pos = write(parameter.getValue(), body, pos + VALUE.length);
+            body[pos++] = '}';
+        }
+        System.arraycopy(suffix, 0, body, pos, suffix.length);
+        return body;
+    }
+
+    /**
+     * Returns the length of the string encoded as a JSON string in UTF-8, quotes included.
+     */
+    private static int sizeOf(String s) {
+        if (s == null) {
+            return NULL.length;
+        }
+        int size = 2;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                byte escape = ESCAPES[c];
+                size += escape == 0 ? 1 : escape == 'u' ? 6 : 2;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                size += 6;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    private static int write(String s, byte[] out, int pos) {
+        if (s == null) {
+            System.arraycopy(NULL, 0, out, pos, NULL.length);
+            return pos + NULL.length;
+        }
+        out[pos++] = '"';
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    out[pos++] = (byte) c;
+                } else if (escape == 'u') {
+                    pos = writeUnicodeEscape(c, out, pos);
+                } else {
+                    out[pos++] = '\\';
+                    out[pos++] = escape;
+                }
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xc0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // like Jackson, characters outside the BMP are written as escaped surrogate pairs
+                pos = writeUnicodeEscape(c, out, pos);
+            } else {
+                out[pos++] = (byte) (0xe0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        out[pos++] = '"';
+        return pos;
+    }
+
+    private static int writeUnicodeEscape(char c, byte[] out, int pos) {
+        out[pos++] = '\\';
+        out[pos++] = 'u';
+        out[pos++] = HEX[c >> 12];
+        out[pos++] = HEX[(c >> 8) & 0xf];
+        out[pos++] = HEX[(c >> 4) & 0xf];
+        out[pos++] = HEX[c & 0xf];
+        return pos;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= data.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.browseract.workflow.demo.client;
+
+/**
+ * A non-2xx answer of the workflow API.
+ * <p>
+ * The API reports errors as {"code": 10112, "msg": "Task is not exist.", "traceId": "..."},
+ * where code is either the HTTP status (e.g. 401) or a business error code.
+ */
+public class WorkflowApiException extends RuntimeException {
+
+    /**
+     * Business code returned by run-task when the account runs as many tasks as its plan allows.
+     */
+    public static final int RUNNING_TASKS_EXCEEDED = 10118;
+
+    private final Endpoint endpoint;
+    private final int httpStatus;
+    private final int errorCode;
+    private final String traceId;
+    private final String body;
+    private final long retryAfterMillis;
+
+    public WorkflowApiException(Endpoint endpoint, int httpStatus, int errorCode, String message, String traceId, String body) {
+        this(endpoint, httpStatus, errorCode, message, traceId, body, -1);
+    }
+
+    public WorkflowApiException(Endpoint endpoint, int httpStatus, int errorCode, String message, String traceId, String body,
+                                long retryAfterMillis) {
+        super(endpoint.getPath() + " failed: status=" + httpStatus + " code=" + errorCode + " " + message);
+        this.endpoint = endpoint;
+        this.httpStatus = httpStatus;
+        this.errorCode = errorCode;
+        this.traceId = traceId;
+        this.body = body;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the raw error body.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the delay requested by the server through the Retry-After header, or -1 if it sent none.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Whether the server asked the client to slow down: HTTP 429 or too many running tasks.
+     */
+    public boolean isThrottled() {
+        return httpStatus == 429 || errorCode == 429 || errorCode == RUNNING_TASKS_EXCEEDED;
+    }
+
+    /**
+     * Whether the failure is on the server side and the call may succeed when sent again.
+     */
+    public boolean isServerError() {
+        return httpStatus >= 500;
+    }
+
+    /**
+     * Returns the API error behind a failed future, unwrapping CompletionException and ExecutionException,
+     * or null if the failure has another cause.
+     */
+    public static WorkflowApiException from(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        return cause instanceof WorkflowApiException ? (WorkflowApiException) cause : null;
+    }
+}
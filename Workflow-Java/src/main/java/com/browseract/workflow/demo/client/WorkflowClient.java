@@ -0,0 +1,388 @@
+package com.browseract.workflow.demo.client;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.cache.ResultCache;
+import com.browseract.workflow.demo.metrics.ClientMetrics;
+import com.browseract.workflow.demo.metrics.MetricsRegistry;
+import com.browseract.workflow.demo.model.Page;
+import com.browseract.workflow.demo.model.RunTaskResult;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskStatus;
+import com.browseract.workflow.demo.model.Workflow;
+import com.browseract.workflow.demo.util.HttpTransport;
+import com.browseract.workflow.demo.util.HttpUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking client for the eight workflow API endpoints.
+ * <p>
+ * Every method returns immediately with a {@link CompletableFuture}. Calls run on the transport's
+ * dispatcher threads and an {@link AdaptiveLimiter} bounds how many are sent at once, from the latency and
+ * pushback observed and up to {@link WorkflowClientConfig#getMaxInFlight()}, so thousands of pending calls share
+ * a small number of threads. stop-task and resume-task jump ahead of the waiting reads, submissions and polls.
+ * A non-2xx answer completes the future with a {@link WorkflowApiException}.
+ * <p>
+ * Answers are decoded by Jackson straight from the response stream into the models of
+ * {@link com.browseract.workflow.demo.model}, no intermediate String is built unless
+ * {@link #callForText(Endpoint, String)} is used.
+ * <p>
+ * Concurrent identical reads share one call, see {@link RequestCoalescer}, and slow or failed reads are
+ * hedged and retried, see {@link ReadPolicy}. Writes are sent once.
+ * With a {@link WorkflowClientConfig#getCache() cache}, get-task and get-workflow are answered from it
+ * when possible.
+ * <p>
+ * With {@link WorkflowClientConfig#getMetrics() metrics}, every call records its latency per phase, status and
+ * sizes, see {@link ClientMetrics}.
+ * <p>
+ * Documentation:
+ * https://www.browseract.com/reception/integrations/api-workflow
+ */
+public class WorkflowClient {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // readers are immutable and cache their deserializers, so they are built once
+    private static final ObjectReader RUN_TASK_READER = objectMapper.readerFor(RunTaskResult.class);
+    private static final ObjectReader TASK_READER = objectMapper.readerFor(Task.class);
+    private static final ObjectReader TASK_STATUS_READER = objectMapper.readerFor(TaskStatus.class);
+    private static final ObjectReader WORKFLOW_READER = objectMapper.readerFor(Workflow.class);
+    private static final ObjectReader TASK_PAGE_READER = objectMapper.readerFor(new TypeReference<Page<Task>>() {
+    });
+    private static final ObjectReader WORKFLOW_PAGE_READER = objectMapper.readerFor(new TypeReference<Page<Workflow>>() {
+    });
+
+    private static final HttpTransport.ResponseHandler<Void> DISCARD = response -> null;
+
+    private final String baseUrl;
+    private final Map<String, String> headers;
+    private final HttpTransport transport;
+    private final AdaptiveLimiter limiter;
+    private final RequestCoalescer coalescer;
+    private final ReadPolicy readPolicy;
+    private final ResultCache cache;
+    private final ClientMetrics metrics;
+
+    public WorkflowClient(String apiKey) {
+        this(new WorkflowClientConfig(apiKey));
+    }
+
+    public WorkflowClient(WorkflowClientConfig config) {
+        this.baseUrl = config.getBaseUrl();
+        // authorization for request
+        this.headers = Collections.singletonMap("Authorization", "Bearer " + config.getApiKey());
+        this.transport = config.getTransport() != null ? config.getTransport() : HttpUtil.getTransport();
+        this.limiter = config.getLimiter() == null ? new AdaptiveLimiter(config.getMaxInFlight())
+                : new AdaptiveLimiter(config.getLimiter(), config.getMaxInFlight());
+        this.coalescer = config.isCoalesceReads() ? new RequestCoalescer() : null;
+        this.readPolicy = config.getReadPolicy() == null ? null : new ReadPolicy(config.getReadPolicy());
+        this.cache = config.getCache();
+        this.metrics = config.getMetrics();
+        if (metrics != null) {
+            registerGauges(metrics);
+        }
+    }
+
+    /**
+     * Start a new workflow task.
+     */
+    public CompletableFuture<RunTaskResult> runTask(RunTask.RunTaskRequest request) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            return Futures.failed(e);
+        }
+        return runTask(body);
+    }
+
+    /**
+     * Start a new workflow task from a request already encoded as JSON, e.g. by a {@link RunTaskEncoder}.
+     */
+    public CompletableFuture<RunTaskResult> runTask(byte[] body) {
+        return call(Endpoint.RUN_TASK, "", body, reading(RUN_TASK_READER));
+    }
+
+    /**
+     * Permanently terminate a running task.
+     */
+    public CompletableFuture<Void> stopTask(long taskId) {
+        return invalidating(taskId, call(Endpoint.STOP_TASK, "?task_id=" + taskId, null, DISCARD));
+    }
+
+    /**
+     * Resume a paused task.
+     */
+    public CompletableFuture<Void> resumeTask(long taskId) {
+        return invalidating(taskId, call(Endpoint.RESUME_TASK, "?task_id=" + taskId, null, DISCARD));
+    }
+
+    /**
+     * Get the details of a task, including its steps and output.
+     */
+    public CompletableFuture<Task> getTask(long taskId) {
+        if (cache != null) {
+            return cache.getTask(taskId, () -> read(Endpoint.GET_TASK, "?task_id=" + taskId, TASK_READER));
+        }
+        return read(Endpoint.GET_TASK, "?task_id=" + taskId, TASK_READER);
+    }
+
+    /**
+     * Get the details of a task, decoding the answer with the given handler, e.g. a streaming parser that skips
+     * the steps the caller already has. The call is sent once, and neither cached nor shared with other calls.
+     */
+    public <T> CompletableFuture<T> getTask(long taskId, HttpTransport.ResponseHandler<T> decoder) {
+        return call(Endpoint.GET_TASK, "?task_id=" + taskId, null, decoder);
+    }
+
+    /**
+     * Get only the status of a task.
+     */
+    public CompletableFuture<TaskStatus> getTaskStatus(long taskId) {
+        return read(Endpoint.GET_TASK_STATUS, "?task_id=" + taskId, TASK_STATUS_READER);
+    }
+
+    /**
+     * List the tasks of all workflows, newest first.
+     *
+     * @param page  page number, starting at 1
+     * @param limit number of items per page (1 to 500)
+     */
+    public CompletableFuture<Page<Task>> listTasks(int page, int limit) {
+        return read(Endpoint.LIST_TASKS, "?page=" + page + "&limit=" + limit, TASK_PAGE_READER);
+    }
+
+    /**
+     * List the tasks of one workflow, newest first.
+     */
+    public CompletableFuture<Page<Task>> listTasks(long workflowId, int page, int limit) {
+        return read(Endpoint.LIST_TASKS, "?workflow_id=" + workflowId + "&page=" + page + "&limit=" + limit, TASK_PAGE_READER);
+    }
+
+    /**
+     * List the workflows, newest first.
+     */
+    public CompletableFuture<Page<Workflow>> listWorkflows(int page, int limit) {
+        return read(Endpoint.LIST_WORKFLOWS, "?page=" + page + "&limit=" + limit, WORKFLOW_PAGE_READER);
+    }
+
+    /**
+     * Get the details of a workflow, including its input parameters.
+     */
+    public CompletableFuture<Workflow> getWorkflow(long workflowId) {
+        if (cache != null) {
+            return cache.getWorkflow(workflowId,
+                    () -> read(Endpoint.GET_WORKFLOW, "?workflow_id=" + workflowId, WORKFLOW_READER));
+        }
+        return read(Endpoint.GET_WORKFLOW, "?workflow_id=" + workflowId, WORKFLOW_READER);
+    }
+
+    /**
+     * Walk the tasks of all workflows, newest first, prefetching pages ahead of the consumer.
+     */
+    public Paginator<Task> listAllTasks() {
+        return new Paginator<>(this::listTasks);
+    }
+
+    /**
+     * Walk the tasks of one workflow, newest first, prefetching pages ahead of the consumer.
+     */
+    public Paginator<Task> listAllTasks(long workflowId) {
+        return new Paginator<>((page, limit) -> listTasks(workflowId, page, limit));
+    }
+
+    /**
+     * Walk all workflows, prefetching pages ahead of the consumer.
+     */
+    public Paginator<Workflow> listAllWorkflows() {
+        return new Paginator<>(this::listWorkflows);
+    }
+
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Returns the coalescer of concurrent identical reads, or null if reads are not coalesced.
+     */
+    public RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Returns the hedging and retry policy of the reads, or null if reads are sent once.
+     */
+    public ReadPolicy getReadPolicy() {
+        return readPolicy;
+    }
+
+    /**
+     * Returns the cache of get-task and get-workflow answers, or null if there is none.
+     */
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the instruments the calls are recorded in, or null if they are not recorded.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Send a call and return the answer as raw text, for callers that need the exact payload.
+     *
+     * @param query the query string, including the leading "?", or an empty string
+     */
+    public CompletableFuture<String> callForText(Endpoint endpoint, String query) {
+        return call(endpoint, query, null, response -> readText(response.getBody()));
+    }
+
+    /**
+     * Send a read call, sharing the call in flight for the same endpoint and query if there is one.
+     * Each endpoint is always decoded with the same reader, so the endpoint and query identify the answer.
+     */
+    private <T> CompletableFuture<T> read(Endpoint endpoint, String query, ObjectReader reader) {
+        Supplier<CompletableFuture<T>> send = () -> call(endpoint, query, null, reading(reader));
+        if (readPolicy != null) {
+            Supplier<CompletableFuture<T>> once = send;
+            send = () -> readPolicy.execute(endpoint, once);
+        }
+        return coalescer == null ? send.get() : coalescer.coalesce(endpoint.getPath() + query, send);
+    }
+
+    private <T> CompletableFuture<T> call(Endpoint endpoint, String query, byte[] body, HttpTransport.ResponseHandler<T> decoder) {
+        HttpTransport.HttpRequest request = new HttpTransport.HttpRequest(endpoint.getMethod(),
+                baseUrl + "/" + endpoint.getPath() + query, headers, body, body == null ? null : "application/json");
+        if (metrics != null) {
+            return measuredCall(endpoint, request, decoder);
+        }
+        return limiter.submit(endpoint.getPriority(), () -> transport.executeAsync(request, response -> {
+            if (response.getCode() != 200) {
+                throw toException(endpoint, response);
+            }
+            return decoder.handle(response);
+        }));
+    }
+
+    private <T> CompletableFuture<T> measuredCall(Endpoint endpoint, HttpTransport.HttpRequest request,
+                                                  HttpTransport.ResponseHandler<T> decoder) {
+        long submitted = System.nanoTime();
+        long bytesOut = request.getBody() == null ? 0 : request.getBody().length;
+        return limiter.submit(endpoint.getPriority(), () -> {
+            long sent = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+            CompletableFuture<T> future = transport.executeAsync(request, response -> {
+                answered.set(true);
+                long received = System.nanoTime();
+                if (response.getCode() != 200) {
+                    metrics.recordCall(endpoint, response.getCode(), sent - submitted, received - sent, 0,
+                            bytesOut, response.getContentLength());
+                    throw toException(endpoint, response);
+                }
+                try {
+                    return decoder.handle(response);
+                } finally {
+                    // also when the answer could not be decoded, with the time spent until it failed
+                    metrics.recordCall(endpoint, response.getCode(), sent - submitted, received - sent,
+                            System.nanoTime() - received, bytesOut, response.getContentLength());
+                }
+            });
+            future.whenComplete((value, error) -> {
+                Throwable cause = error == null ? null : Futures.unwrap(error);
+                // a call that got an answer was recorded with its status
+                if (!answered.get() && cause instanceof IOException) {
+                    metrics.recordFailure(endpoint, sent - submitted, System.nanoTime() - sent);
+                }
+            });
+            return future;
+        });
+    }
+
+    private void registerGauges(ClientMetrics metrics) {
+        MetricsRegistry registry = metrics.getRegistry();
+        registry.gauge("workflow.limiter.limit", limiter::getLimit);
+        registry.gauge("workflow.limiter.in_flight", limiter::getInFlight);
+        registry.gauge("workflow.limiter.waiting", limiter::getWaiting);
+        if (readPolicy != null) {
+            registry.gauge("workflow.reads.retries", readPolicy::getRetries);
+            registry.gauge("workflow.reads.hedges", readPolicy::getHedges);
+            registry.gauge("workflow.reads.rejected", readPolicy::getRejected);
+        }
+        if (coalescer != null) {
+            registry.gauge("workflow.reads.coalesced", coalescer::getCoalesced);
+        }
+    }
+
+    /**
+     * Drop the cached task once a call that changes its status has succeeded.
+     */
+    private CompletableFuture<Void> invalidating(long taskId, CompletableFuture<Void> future) {
+        if (cache == null) {
+            return future;
+        }
+        return future.thenRun(() -> cache.invalidateTask(taskId));
+    }
+
+    private static <T> HttpTransport.ResponseHandler<T> reading(ObjectReader reader) {
+        return response -> reader.readValue(response.getBody());
+    }
+
+    static WorkflowApiException toException(Endpoint endpoint, HttpTransport.Response response) throws IOException {
+        String body = readText(response.getBody());
+        int errorCode = response.getCode();
+        String message = body;
+        String traceId = null;
+        try {
+            JsonNode error = objectMapper.readTree(body);
+            if (error != null && error.isObject()) {
+                errorCode = error.path("code").asInt(errorCode);
+                message = error.path("msg").asText(body);
+                traceId = error.path("traceId").asText(null);
+            }
+        } catch (JsonProcessingException e) {
+            // not a json error body, keep the raw text as message
+        }
+        return new WorkflowApiException(endpoint, response.getCode(), errorCode, message, traceId, body,
+                parseRetryAfter(response.getHeader("Retry-After")));
+    }
+
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            // an HTTP date, not worth parsing for the delays the API uses
+            return -1;
+        }
+    }
+
+    private static String readText(InputStream body) throws IOException {
+        if (body == null) {
+            return "";
+        }
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            text.write(buffer, 0, read);
+        }
+        return new String(text.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package com.browseract.workflow.demo.client;
+
+import com.browseract.workflow.demo.cache.ResultCache;
+import com.browseract.workflow.demo.metrics.ClientMetrics;
+import com.browseract.workflow.demo.util.HttpTransport;
+
+/**
+ * Settings of a {@link WorkflowClient}.
+ */
+public class WorkflowClientConfig {
+
+    public static final String DEFAULT_BASE_URL = "https://api.browseract.com/v2/workflow";
+
+    /**
+     * API Key Required for API Call, generated from: https://www.browseract.com/reception/integrations
+     */
+    private String apiKey;
+
+    /**
+     * Address of the workflow API, without a trailing slash.
+     */
+    private String baseUrl = DEFAULT_BASE_URL;
+
+    /**
+     * Transport used to send the calls. When null, the transport shared by HttpUtil is used.
+     */
+    private HttpTransport transport;
+
+    /**
+     * Maximum number of calls sent concurrently, further calls wait in a queue without holding a thread.
+     */
+    private int maxInFlight = 64;
+
+    /**
+     * How the concurrency limit adapts below maxInFlight, see {@link AdaptiveLimiter}.
+     * When null, the limit is fixed at maxInFlight.
+     */
+    private LimiterConfig limiter = new LimiterConfig();
+
+    /**
+     * Whether concurrent identical reads share one call, see {@link RequestCoalescer}.
+     */
+    private boolean coalesceReads = true;
+
+    /**
+     * Hedging, retries and circuit breaking of the reads, see {@link ReadPolicy}. When null, each read is sent once.
+     */
+    private ReadPolicyConfig readPolicy = new ReadPolicyConfig();
+
+    /**
+     * Cache answering get-task and get-workflow for IDs already read. When null, every call is sent.
+     */
+    private ResultCache cache;
+
+    /**
+     * Where the latencies, status codes and sizes of the calls are recorded. When null, nothing is recorded.
+     */
+    private ClientMetrics metrics;
+
+    public WorkflowClientConfig() {
+    }
+
+    public WorkflowClientConfig(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    // Getters and Setters
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public LimiterConfig getLimiter() {
+        return limiter;
+    }
+
+    public void setLimiter(LimiterConfig limiter) {
+        this.limiter = limiter;
+    }
+
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    public void setCoalesceReads(boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    public ReadPolicyConfig getReadPolicy() {
+        return readPolicy;
+    }
+
+    public void setReadPolicy(ReadPolicyConfig readPolicy) {
+        this.readPolicy = readPolicy;
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(ClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
@@ -0,0 +1,632 @@
+package com.browseract.workflow.demo.download;
+
+import com.browseract.workflow.demo.model.Step;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.util.HttpTransport;
+import com.browseract.workflow.demo.util.HttpUtil;
+import com.browseract.workflow.demo.util.Threads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads the output files and step screenshots of tasks to disk.
+ * <p>
+ * Response bodies are copied into the file channel through a small transfer buffer, never held in the heap, and
+ * at most {@code maxConcurrent} requests run at a time whatever the number of files queued. A file larger than
+ * one chunk is fetched as parallel ranges written at their offset; the finished chunks are recorded next to the
+ * partial file, so a download interrupted by a crash or a failure only fetches the missing chunks the next time.
+ * The content is then checked against the expected digest, or the MD5 ETag of the storage server, before the
+ * partial file is renamed to its target.
+ * <p>
+ * IO errors, server errors, 408 and 429 answers are retried with a jittered backoff; other 4xx answers fail the
+ * file at once.
+ * <pre>
+ * try (ArtifactDownloader downloader = new ArtifactDownloader(HttpUtil.getTransport(), new DownloadConfig(Paths.get("artifacts")))) {
+ *     downloader.downloadTask(task).join().forEach(result -&gt; System.out.println(result.getPath() + " " + result.getStatus()));
+ * }
+ * </pre>
+ * The file URLs are pre-signed, so no API key is sent with the requests.
+ */
+public class ArtifactDownloader implements Closeable {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String CHUNKS_SUFFIX = ".part.chunks";
+    private static final int TRANSFER_BYTES = 1024 * 1024;
+    private static final int DIGEST_BUFFER_BYTES = 64 * 1024;
+    private static final Pattern MD5_ETAG = Pattern.compile("\"?[0-9a-fA-F]{32}\"?");
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final HttpTransport transport;
+    private final DownloadConfig config;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    /**
+     * Retries waiting for their backoff, which {@link #close()} drops from the timer.
+     */
+    private final Set<Job> backingOff = ConcurrentHashMap.newKeySet();
+
+    public ArtifactDownloader(DownloadConfig config) {
+        this(HttpUtil.getTransport(), config);
+    }
+
+    public ArtifactDownloader(HttpTransport transport, DownloadConfig config) {
+        this.transport = transport;
+        this.config = config;
+        // each worker runs one request at a time, so the pool size bounds the requests in flight
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getMaxConcurrent()),
+                Threads.daemonThreads("download"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(Threads.daemonThreads("download-retry"));
+    }
+
+    /**
+     * Download the output files of a task to {@code <directory>/<task id>/}, and its step screenshots to
+     * {@code <directory>/<task id>/steps/}.
+     *
+     * @return the result of each file, once all of them are done
+     */
+    public CompletableFuture<List<DownloadResult>> downloadTask(Task task) {
+        Path directory = config.getDirectory().resolve(Long.toString(task.getId()));
+        List<CompletableFuture<DownloadResult>> downloads = new ArrayList<>();
+        if (task.getOutput() != null && task.getOutput().getFiles() != null) {
+            List<String> files = task.getOutput().getFiles();
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < files.size(); i++) {
+                String name = fileName(files.get(i), "file-" + i);
+                if (!names.add(name)) {
+                    name = i + "-" + name;
+                }
+                downloads.add(download(files.get(i), directory.resolve(name)));
+            }
+        }
+        if (task.getSteps() != null) {
+            for (Step step : task.getSteps()) {
+                String url = step.getScreenshots_url();
+                if (url != null && !url.isEmpty()) {
+                    String name = step.getStep() + "-" + fileName(url, "screenshot");
+                    downloads.add(download(url, directory.resolve("steps").resolve(name)));
+                }
+            }
+        }
+        return CompletableFuture.allOf(downloads.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> downloads.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    public CompletableFuture<DownloadResult> download(String url, Path target) {
+        return download(url, target, null);
+    }
+
+    /**
+     * Download a file. The returned future always completes normally, a failure is reported in the result,
+     * also once the downloader is closed.
+     *
+     * @param expectedDigest hex digest of the content with the configured algorithm, or null to rely on the ETag
+     */
+    public CompletableFuture<DownloadResult> download(String url, Path target, String expectedDigest) {
+        Transfer transfer = new Transfer(url, target, expectedDigest);
+        transfer.execute(transfer::start);
+        return transfer.future;
+    }
+
+    /**
+     * Stops the workers. Downloads not finished fail, and are left to be resumed.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        for (Job job : backingOff) {
+            job.transfer.fail(closed());
+        }
+        for (Runnable job : workers.shutdownNow()) {
+            // never run, so nothing else completes its download
+            ((Job) job).transfer.fail(closed());
+        }
+    }
+
+    /**
+     * Returns a safe file name from the last segment of the URL path.
+     */
+    static String fileName(String url, String fallback) {
+        String path = url;
+        int end = path.length();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = path.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        path = path.substring(0, end);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        try {
+            name = URLDecoder.decode(name, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            // keep it encoded
+        }
+        name = UNSAFE_NAME_CHARS.matcher(name).replaceAll("_");
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return fallback;
+        }
+        return name;
+    }
+
+    /**
+     * Thrown when a range of a file comes from another version than the chunks already fetched.
+     */
+    /**
+     * An answer with an unexpected status.
+     */
+    private static class HttpStatusException extends IOException {
+        final int code;
+
+        HttpStatusException(int code, String url) {
+            super("HTTP " + code + " for " + url);
+            this.code = code;
+        }
+    }
+
+    private static class ContentChangedException extends IOException {
+        ContentChangedException(String url) {
+            super("content changed on the server during the download of " + url);
+        }
+    }
+
+    /**
+     * A request of a download, queued for the workers or waiting for its backoff.
+     */
+    private static final class Job implements Runnable {
+        final Transfer transfer;
+        final Runnable request;
+
+        Job(Transfer transfer, Runnable request) {
+            this.transfer = transfer;
+            this.request = request;
+        }
+
+        @Override
+        public void run() {
+            request.run();
+        }
+    }
+
+    /**
+     * The download of one file. Each request runs as its own worker job, so the chunks of a large file and
+     * the requests of other files share the workers.
+     */
+    private final class Transfer {
+        private final String url;
+        private final Path target;
+        private final Path part;
+        private final Path chunksFile;
+        private final String expectedDigest;
+        private final CompletableFuture<DownloadResult> future = new CompletableFuture<>();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicInteger remaining = new AtomicInteger();
+
+        private FileChannel data;
+        private FileChannel chunks;
+        private int chunksOffset;
+        private long length;
+        private String etag;
+        private boolean resumed;
+
+        Transfer(String url, Path target, String expectedDigest) {
+            this.url = url;
+            this.target = target;
+            this.part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+            this.chunksFile = target.resolveSibling(target.getFileName() + CHUNKS_SUFFIX);
+            this.expectedDigest = expectedDigest;
+        }
+
+        /**
+         * Run a request on a worker, or fail the download if the downloader is closed.
+         */
+        void execute(Runnable request) {
+            try {
+                workers.execute(new Job(this, request));
+            } catch (RejectedExecutionException e) {
+                // the pool queue is unbounded, it only rejects once shut down
+                fail(closed());
+            }
+        }
+
+        /**
+         * Run a request again once the backoff after the given attempt has passed.
+         */
+        void executeLater(Runnable request, int attempt) {
+            long bound = Math.min(config.getMaxBackoffMillis(), config.getInitialBackoffMillis() << Math.min(attempt - 1, 20));
+            long delay = bound / 2 + ThreadLocalRandom.current().nextLong(bound / 2 + 1);
+            Job job = new Job(this, request);
+            backingOff.add(job);
+            try {
+                timer.schedule(() -> {
+                    backingOff.remove(job);
+                    execute(request);
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                backingOff.remove(job);
+                fail(closed());
+            }
+        }
+
+        void start() {
+            try {
+                if (config.isSkipExisting() && Files.exists(target)
+                        && (expectedDigest == null || expectedDigest.equalsIgnoreCase(digest(target, config.getDigestAlgorithm())))) {
+                    complete(DownloadResult.Status.SKIPPED, null);
+                    return;
+                }
+                Files.createDirectories(target.toAbsolutePath().getParent());
+                data = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if (loadChunks()) {
+                    resumed = true;
+                    scheduleMissing();
+                } else {
+                    fetchFirst(1);
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Fetch the first chunk, which tells the length of the file and whether the server serves ranges.
+         */
+        private void fetchFirst(int attempt) {
+            try {
+                Map<String, String> headers = new HashMap<>();
+                headers.put("Range", "bytes=0-" + (config.getChunkBytes() - 1));
+                boolean complete = transport.execute(new HttpTransport.HttpRequest("GET", url, headers), response -> {
+                    etag = response.getHeader("ETag");
+                    switch (response.getCode()) {
+                        case 206:
+                            length = totalLength(response.getHeader("Content-Range"));
+                            data.truncate(length);
+                            // extend the file to its length, so a resumed download can tell it is the same one
+                            data.write(ByteBuffer.wrap(new byte[1]), length - 1);
+                            long first = Math.min(length, config.getChunkBytes());
+                            if (write(response, 0, first) != first) {
+                                throw new IOException("truncated range for " + url);
+                            }
+                            return length <= config.getChunkBytes();
+                        case 200:
+                            // ranges are not supported, the body is the whole file
+                            data.truncate(0);
+                            length = write(response, 0, Long.MAX_VALUE);
+                            if (response.getContentLength() >= 0 && length != response.getContentLength()) {
+                                throw new IOException("truncated body for " + url);
+                            }
+                            return true;
+                        case 416:
+                            // an empty file has no satisfiable range
+                            data.truncate(0);
+                            length = 0;
+                            return true;
+                        default:
+                            throw new HttpStatusException(response.getCode(), url);
+                    }
+                });
+                if (complete) {
+                    finish();
+                } else {
+                    createChunks();
+                    markDone(0);
+                    scheduleMissing();
+                }
+            } catch (IOException e) {
+                if (isRetryable(e) && attempt < config.getMaxAttempts() && !done.get()) {
+                    executeLater(() -> fetchFirst(attempt + 1), attempt);
+                } else {
+                    fail(e);
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void fetchChunk(int index, int attempt) {
+            if (done.get()) {
+                return;
+            }
+            try {
+                long start = (long) index * config.getChunkBytes();
+                long end = Math.min(start + config.getChunkBytes(), length) - 1;
+                Map<String, String> headers = new HashMap<>();
+                headers.put("Range", "bytes=" + start + "-" + end);
+                if (etag != null) {
+                    // the server answers with the whole file, not the range, if it changed since
+                    headers.put("If-Range", etag);
+                }
+                transport.execute(new HttpTransport.HttpRequest("GET", url, headers), response -> {
+                    if (response.getCode() == 200) {
+                        throw new ContentChangedException(url);
+                    }
+                    if (response.getCode() != 206) {
+                        throw new HttpStatusException(response.getCode(), url);
+                    }
+                    if (totalLength(response.getHeader("Content-Range")) != length) {
+                        throw new ContentChangedException(url);
+                    }
+                    if (write(response, start, end - start + 1) != end - start + 1) {
+                        throw new IOException("truncated range for " + url);
+                    }
+                    return null;
+                });
+                markDone(index);
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                }
+            } catch (ContentChangedException e) {
+                discard();
+                fail(e);
+            } catch (IOException e) {
+                if (isRetryable(e) && attempt < config.getMaxAttempts() && !done.get()) {
+                    executeLater(() -> fetchChunk(index, attempt + 1), attempt);
+                } else {
+                    fail(e);
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Copy the body into the file at the given position.
+         *
+         * @return the number of bytes written
+         */
+        private long write(HttpTransport.Response response, long position, long count) throws IOException {
+            ReadableByteChannel source = Channels.newChannel(response.getBody());
+            long written = 0;
+            while (written < count) {
+                long n = data.transferFrom(source, position + written, Math.min(count - written, TRANSFER_BYTES));
+                if (n <= 0) {
+                    break;
+                }
+                written += n;
+            }
+            received.addAndGet(written);
+            return written;
+        }
+
+        private void scheduleMissing() throws IOException {
+            int count = chunkCount();
+            ByteBuffer state = ByteBuffer.allocate(count);
+            chunks.read(state, chunksOffset);
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (state.get(i) == 0) {
+                    missing.add(i);
+                }
+            }
+            if (missing.isEmpty()) {
+                finish();
+                return;
+            }
+            remaining.set(missing.size());
+            for (int index : missing) {
+                execute(() -> fetchChunk(index, 1));
+            }
+        }
+
+        /**
+         * The chunks file holds the length and the ETag of the file, then one byte per chunk set once it is written.
+         */
+        private void createChunks() throws IOException {
+            byte[] tag = etag == null ? new byte[0] : etag.getBytes(StandardCharsets.UTF_8);
+            chunksOffset = 8 + 4 + tag.length;
+            ByteBuffer header = ByteBuffer.allocate(chunksOffset + chunkCount());
+            header.putLong(length).putInt(tag.length).put(tag);
+            header.rewind();
+            chunks = FileChannel.open(chunksFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            while (header.hasRemaining()) {
+                chunks.write(header, header.position());
+            }
+        }
+
+        /**
+         * Reads the chunks file left by an interrupted download.
+         *
+         * @return false if there is none, or it does not match the partial file and the chunk size
+         */
+        private boolean loadChunks() throws IOException {
+            if (!Files.exists(chunksFile)) {
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(chunksFile));
+            if (header.remaining() >= 12) {
+                length = header.getLong();
+                int tagLength = header.getInt();
+                if (tagLength >= 0 && tagLength <= header.remaining()) {
+                    byte[] tag = new byte[tagLength];
+                    header.get(tag);
+                    etag = tagLength == 0 ? null : new String(tag, StandardCharsets.UTF_8);
+                    chunksOffset = header.position();
+                    if (header.remaining() == chunkCount() && data.size() == length) {
+                        chunks = FileChannel.open(chunksFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                        return true;
+                    }
+                }
+            }
+            Files.delete(chunksFile);
+            data.truncate(0);
+            etag = null;
+            return false;
+        }
+
+        private void markDone(int index) throws IOException {
+            chunks.write(ByteBuffer.wrap(new byte[]{1}), chunksOffset + index);
+        }
+
+        private int chunkCount() {
+            return (int) ((length + config.getChunkBytes() - 1) / config.getChunkBytes());
+        }
+
+        private void finish() {
+            try {
+                verify();
+                data.close();
+                if (chunks != null) {
+                    chunks.close();
+                }
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(chunksFile);
+                complete(resumed ? DownloadResult.Status.RESUMED : DownloadResult.Status.DOWNLOADED, null);
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void verify() throws IOException {
+            if (!config.isVerifyChecksum()) {
+                return;
+            }
+            String expected;
+            String algorithm;
+            if (expectedDigest != null) {
+                expected = expectedDigest;
+                algorithm = config.getDigestAlgorithm();
+            } else if (etag != null && MD5_ETAG.matcher(etag).matches()) {
+                // single-part objects of S3 compatible stores use the MD5 of the content as ETag
+                expected = etag.replace("\"", "");
+                algorithm = "MD5";
+            } else {
+                return;
+            }
+            if (!expected.equalsIgnoreCase(digest(data, algorithm))) {
+                discard();
+                throw new IOException("checksum mismatch for " + url);
+            }
+        }
+
+        /**
+         * Delete the partial file so the next attempt starts over.
+         */
+        private void discard() {
+            try {
+                data.close();
+                if (chunks != null) {
+                    chunks.close();
+                }
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(chunksFile);
+            } catch (IOException e) {
+                // the next attempt truncates them
+            }
+        }
+
+        private void fail(Throwable error) {
+            try {
+                if (data != null) {
+                    data.close();
+                }
+                if (chunks != null) {
+                    chunks.close();
+                }
+            } catch (IOException e) {
+                // nothing more to do
+            }
+            complete(DownloadResult.Status.FAILED, error);
+        }
+
+        private void complete(DownloadResult.Status status, Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                future.complete(new DownloadResult(url, target, status, received.get(), error));
+            }
+        }
+    }
+
+    /**
+     * Whether the same request may succeed later: not when the server refused it for good.
+     */
+    private static boolean isRetryable(IOException error) {
+        if (!(error instanceof HttpStatusException)) {
+            return true;
+        }
+        int code = ((HttpStatusException) error).code;
+        return code >= 500 || code == 408 || code == 429;
+    }
+
+    private static RejectedExecutionException closed() {
+        return new RejectedExecutionException("the downloader is closed");
+    }
+
+    /**
+     * Returns the total length from a {@code Content-Range: bytes <first>-<last>/<total>} header.
+     */
+    private static long totalLength(String contentRange) throws IOException {
+        int slash = contentRange == null ? -1 : contentRange.lastIndexOf('/');
+        if (slash < 0) {
+            throw new IOException("missing Content-Range in a partial response");
+        }
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("unknown length in Content-Range: " + contentRange);
+        }
+    }
+
+    private static String digest(Path file, String algorithm) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return digest(channel, algorithm);
+        }
+    }
+
+    private static String digest(FileChannel channel, String algorithm) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_BYTES);
+        long position = 0;
+        int n;
+        while ((n = channel.read(buffer, position)) > 0) {
+            position += n;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
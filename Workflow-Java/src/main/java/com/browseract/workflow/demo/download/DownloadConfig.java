@@ -0,0 +1,136 @@
+package com.browseract.workflow.demo.download;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of an {@link ArtifactDownloader}.
+ */
+public class DownloadConfig {
+
+    /**
+     * Directory the artifacts of each task are saved under, in a sub-directory named after the task ID.
+     */
+    private Path directory;
+
+    /**
+     * Maximum number of HTTP requests in flight, across all files.
+     */
+    private int maxConcurrent = 8;
+
+    /**
+     * Size of the ranges a file is fetched in. Files larger than one chunk are fetched in parallel ranges,
+     * and an interrupted download only fetches again the chunks it had not finished.
+     */
+    private int chunkBytes = 8 * 1024 * 1024;
+
+    /**
+     * Number of times a request is sent before the file is reported as failed.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Pause before the first retry of a request, doubled on each next one, with jitter.
+     */
+    private long initialBackoffMillis = 500;
+
+    /**
+     * Upper bound of the pause before a retry.
+     */
+    private long maxBackoffMillis = 10_000;
+
+    /**
+     * Whether a file already present at its target path is kept instead of being downloaded again.
+     */
+    private boolean skipExisting = true;
+
+    /**
+     * Whether the content is checked against the expected digest, or against the MD5 ETag of the storage
+     * server when the caller gives none.
+     */
+    private boolean verifyChecksum = true;
+
+    /**
+     * Algorithm of the expected digests, as named by {@link java.security.MessageDigest}.
+     */
+    private String digestAlgorithm = "SHA-256";
+
+    public DownloadConfig() {
+    }
+
+    public DownloadConfig(Path directory) {
+        this.directory = directory;
+    }
+
+    // Getters and Setters
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    public void setChunkBytes(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public boolean isSkipExisting() {
+        return skipExisting;
+    }
+
+    public void setSkipExisting(boolean skipExisting) {
+        this.skipExisting = skipExisting;
+    }
+
+    public boolean isVerifyChecksum() {
+        return verifyChecksum;
+    }
+
+    public void setVerifyChecksum(boolean verifyChecksum) {
+        this.verifyChecksum = verifyChecksum;
+    }
+
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+}
@@ -0,0 +1,69 @@
+package com.browseract.workflow.demo.download;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of the download of one file.
+ */
+public class DownloadResult {
+
+    public enum Status {
+        /**
+         * Fetched in full.
+         */
+        DOWNLOADED,
+        /**
+         * Completed from the chunks left by an interrupted download.
+         */
+        RESUMED,
+        /**
+         * Already present at the target path.
+         */
+        SKIPPED,
+        FAILED
+    }
+
+    private final String url;
+    private final Path path;
+    private final Status status;
+    private final long bytes;
+    private final Throwable error;
+
+    public DownloadResult(String url, Path path, Status status, long bytes, Throwable error) {
+        this.url = url;
+        this.path = path;
+        this.status = status;
+        this.bytes = bytes;
+        this.error = error;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status != Status.FAILED;
+    }
+
+    /**
+     * Returns the number of bytes received by this download, 0 for a skipped file.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns why the download failed, or null if it succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+}
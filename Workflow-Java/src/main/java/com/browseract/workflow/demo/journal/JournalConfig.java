@@ -0,0 +1,70 @@
+package com.browseract.workflow.demo.journal;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of a {@link SubmissionJournal}.
+ */
+public class JournalConfig {
+
+    /**
+     * Directory of the segment and snapshot files.
+     */
+    private Path directory;
+
+    /**
+     * Size of each memory-mapped segment file. A record never spans two segments.
+     */
+    private int segmentBytes = 16 * 1024 * 1024;
+
+    /**
+     * Number of full segments after which the journal is compacted into a snapshot of the live state.
+     */
+    private int compactAfterSegments = 4;
+
+    /**
+     * Whether each record is forced to the storage device before the call returns. Without it, records survive
+     * a crash of the JVM, as they are in the page cache, but the last ones may be lost if the machine goes down.
+     */
+    private boolean forceEachRecord;
+
+    public JournalConfig() {
+    }
+
+    public JournalConfig(Path directory) {
+        this.directory = directory;
+    }
+
+    // Getters and Setters
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public void setSegmentBytes(int segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    public int getCompactAfterSegments() {
+        return compactAfterSegments;
+    }
+
+    public void setCompactAfterSegments(int compactAfterSegments) {
+        this.compactAfterSegments = compactAfterSegments;
+    }
+
+    public boolean isForceEachRecord() {
+        return forceEachRecord;
+    }
+
+    public void setForceEachRecord(boolean forceEachRecord) {
+        this.forceEachRecord = forceEachRecord;
+    }
+}
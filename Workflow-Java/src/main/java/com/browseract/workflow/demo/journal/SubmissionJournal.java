@@ -0,0 +1,607 @@
+package com.browseract.workflow.demo.journal;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.RunTaskEncoder;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.RunTaskResult;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.tracking.TaskRegistry;
+import com.browseract.workflow.demo.tracking.TaskStatusListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of run-task submissions and task status transitions, so that a restarted process knows
+ * its tasks without scanning the task history.
+ * <p>
+ * Before run-task is sent, the journal records the intent with the request; then the returned task ID, or that
+ * the API refused the call; then each status transition. Records go to memory-mapped segment files, each with
+ * a length and a CRC32, so appending is a copy into the page cache and survives a crash of the JVM. Every few
+ * segments the live state (non-terminal tasks and unresolved intents) is written to a snapshot and the older
+ * segments are deleted.
+ * <p>
+ * Opening the journal replays the latest snapshot and the segments written after it, stopping at the first torn
+ * record. The tasks still in progress can then be handed to a {@link TaskRegistry} with {@link #resume}, and the
+ * intents still pending are the submissions whose answer was lost: the task may or may not exist, a list-tasks
+ * walk down to the intent time settles it.
+ * <pre>
+ * try (SubmissionJournal journal = new SubmissionJournal(new JournalConfig(Paths.get("journal")))) {
+ *     journal.resume(poller.getRegistry());
+ *     journal.runTask(client, request);
+ * }
+ * </pre>
+ */
+public class SubmissionJournal implements TaskStatusListener, Closeable {
+
+    private static final byte INTENT = 1;
+    private static final byte SUBMITTED = 2;
+    private static final byte ABANDONED = 3;
+    private static final byte STATUS = 4;
+
+    // record length and CRC32 of the body
+    private static final int HEADER = 4 + 4;
+    private static final int INTENT_FIXED = 1 + 8 + 8 + 8 + 4;
+    private static final int SUBMITTED_SIZE = 1 + 8 + 8;
+    private static final int ABANDONED_SIZE = 1 + 8;
+    private static final int STATUS_SIZE = 1 + 8 + 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".log";
+
+    private static final TaskState[] STATES = TaskState.values();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectWriter REQUEST_WRITER = objectMapper.writerFor(RunTask.RunTaskRequest.class);
+    private static final ObjectReader REQUEST_READER = objectMapper.readerFor(RunTask.RunTaskRequest.class);
+
+    private final JournalConfig config;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final Map<Long, TaskState> active = new HashMap<>();
+    private final Map<Long, Intent> pending = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private long nextIntentId = 1;
+    private int firstSegment;
+    private int segmentNumber;
+    private MappedByteBuffer segment;
+
+    private final long replayMillis;
+    private final long replayedRecords;
+
+    public SubmissionJournal(JournalConfig config) throws IOException {
+        this.config = config;
+        this.directory = config.getDirectory();
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        TreeMap<Integer, Path> snapshots = list(SNAPSHOT_PREFIX);
+        TreeMap<Integer, Path> segments = list(SEGMENT_PREFIX);
+        long records = 0;
+        int base = 1;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.lastKey();
+            records += replay(readAll(snapshots.lastEntry().getValue()), false);
+        }
+        // files older than the snapshot are left over from an interrupted compaction
+        for (Path old : snapshots.headMap(base).values()) {
+            Files.deleteIfExists(old);
+        }
+        for (Path old : segments.headMap(base).values()) {
+            Files.deleteIfExists(old);
+        }
+        segments = new TreeMap<>(segments.tailMap(base));
+
+        if (segments.isEmpty()) {
+            firstSegment = base;
+            openSegment(base);
+        } else {
+            firstSegment = segments.firstKey();
+            for (Map.Entry<Integer, Path> entry : segments.entrySet()) {
+                boolean last = entry.getKey().equals(segments.lastKey());
+                if (last) {
+                    segmentNumber = entry.getKey();
+                    segment = map(entry.getValue());
+                    records += replay(segment, true);
+                } else {
+                    records += replay(map(entry.getValue()), false);
+                }
+            }
+        }
+        this.replayedRecords = records;
+        this.replayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Record that a run-task call is about to be sent.
+     *
+     * @return the ID of the intent, to resolve with {@link #logSubmitted} or {@link #logAbandoned}
+     */
+    public long logIntent(RunTask.RunTaskRequest request) throws IOException {
+        return logIntent(request.getWorkflow_id(), REQUEST_WRITER.writeValueAsBytes(request));
+    }
+
+    /**
+     * Record that a run-task call with the given JSON body is about to be sent.
+     */
+    public long logIntent(long workflowId, byte[] json) throws IOException {
+        lock.lock();
+        try {
+            long intentId = nextIntentId++;
+            long now = System.currentTimeMillis();
+            int start = begin(INTENT_FIXED + json.length);
+            segment.put(INTENT).putLong(intentId).putLong(workflowId).putLong(now)
+                    .putInt(json.length).put(json);
+            commit(start);
+            pending.put(intentId, new Intent(intentId, workflowId, now, json));
+            return intentId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record the task created for an intent. The task is then tracked as created.
+     */
+    public void logSubmitted(long intentId, long taskId) throws IOException {
+        lock.lock();
+        try {
+            int start = begin(SUBMITTED_SIZE);
+            segment.put(SUBMITTED).putLong(intentId).putLong(taskId);
+            commit(start);
+            pending.remove(intentId);
+            active.putIfAbsent(taskId, TaskState.CREATED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that no task was created for an intent, e.g. because the API refused the call.
+     */
+    public void logAbandoned(long intentId) throws IOException {
+        lock.lock();
+        try {
+            int start = begin(ABANDONED_SIZE);
+            segment.put(ABANDONED).putLong(intentId);
+            commit(start);
+            pending.remove(intentId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record the state of a task. A terminal state drops the task from the journal.
+     */
+    public void logStatus(long taskId, TaskState state) throws IOException {
+        lock.lock();
+        try {
+            int start = begin(STATUS_SIZE);
+            segment.put(STATUS).putLong(taskId).put((byte) state.ordinal());
+            commit(start);
+            applyStatus(taskId, state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records each transition seen by a {@link TaskRegistry} this journal listens to.
+     */
+    @Override
+    public void onStatusChange(long taskId, TaskState previous, TaskState current) {
+        try {
+            logStatus(taskId, current);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Send run-task with its intent and outcome journaled. If the journal cannot record the outcome, the future
+     * fails with an {@link UncheckedIOException} even if the task was created.
+     */
+    public CompletableFuture<RunTaskResult> runTask(WorkflowClient client, RunTask.RunTaskRequest request) {
+        byte[] body;
+        try {
+            body = REQUEST_WRITER.writeValueAsBytes(request);
+        } catch (IOException e) {
+            return Futures.failed(e);
+        }
+        return runTask(client, request.getWorkflow_id(), body);
+    }
+
+    /**
+     * Send run-task with a body encoded by a {@link RunTaskEncoder}, journaled the same way. The body is encoded
+     * once, for both the journal and the call.
+     */
+    public CompletableFuture<RunTaskResult> runTask(WorkflowClient client, RunTaskEncoder encoder,
+                                                    List<RunTask.InputParameter> parameters) {
+        return runTask(client, encoder.getWorkflowId(), encoder.encode(parameters));
+    }
+
+    private CompletableFuture<RunTaskResult> runTask(WorkflowClient client, long workflowId, byte[] body) {
+        long intentId;
+        try {
+            intentId = logIntent(workflowId, body);
+        } catch (IOException e) {
+            return Futures.failed(e);
+        }
+        return client.runTask(body).whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    logSubmitted(intentId, result.getId());
+                } else if (WorkflowApiException.from(error) != null) {
+                    // the API answered with an error, so it did not create the task
+                    logAbandoned(intentId);
+                }
+                // after an I/O error the task may exist, the intent stays pending
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Register the tasks still in progress in a registry, e.g. the one of a
+     * {@link com.browseract.workflow.demo.tracking.TaskPoller}, and journal its transitions from now on.
+     *
+     * @return the number of tasks registered
+     */
+    public int resume(TaskRegistry registry) {
+        int registered = 0;
+        for (Map.Entry<Long, TaskState> task : getActiveTasks().entrySet()) {
+            if (registry.register(task.getKey(), task.getValue())) {
+                registered++;
+            }
+        }
+        registry.addListener(this);
+        return registered;
+    }
+
+    /**
+     * Returns the last journaled state of each task not yet terminal.
+     */
+    public Map<Long, TaskState> getActiveTasks() {
+        lock.lock();
+        try {
+            return new HashMap<>(active);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the intents with neither a task ID nor a refusal, oldest first.
+     */
+    public List<Intent> getPendingIntents() {
+        lock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(pending.values()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how long opening the journal took to replay it.
+     */
+    public long getReplayMillis() {
+        return replayMillis;
+    }
+
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Write the live state to a snapshot and delete the segments it replaces.
+     */
+    public void compact() throws IOException {
+        lock.lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Force the records appended so far to the storage device.
+     */
+    public void sync() {
+        lock.lock();
+        try {
+            segment.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        sync();
+    }
+
+    /**
+     * Reserve room for a record in the current segment, rolling to a new one if needed.
+     *
+     * @return the position of the record
+     */
+    private int begin(int bodySize) throws IOException {
+        if (HEADER + bodySize > config.getSegmentBytes()) {
+            throw new IOException("record of " + bodySize + " bytes does not fit in a segment");
+        }
+        if (segment.remaining() < HEADER + bodySize) {
+            roll();
+        }
+        int start = segment.position();
+        segment.position(start + HEADER);
+        return start;
+    }
+
+    /**
+     * Write the header of the record started at the given position. The length goes last, as it marks the record
+     * as complete.
+     */
+    private void commit(int start) {
+        int end = segment.position();
+        ByteBuffer body = segment.duplicate();
+        body.position(start + HEADER).limit(end);
+        crc.reset();
+        crc.update(body);
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.putInt(start, end - start - HEADER);
+        if (config.isForceEachRecord()) {
+            segment.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        openSegment(segmentNumber + 1);
+        if (segmentNumber - firstSegment >= config.getCompactAfterSegments()) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        if (segment.position() > 0) {
+            segment.force();
+            openSegment(segmentNumber + 1);
+        }
+        // the snapshot holds the state at the start of the current, still empty, segment
+        int size = 0;
+        for (Intent intent : pending.values()) {
+            size += HEADER + INTENT_FIXED + intent.request.length;
+        }
+        size += active.size() * (HEADER + STATUS_SIZE);
+        ByteBuffer snapshot = ByteBuffer.allocate(size);
+        for (Intent intent : pending.values()) {
+            int start = snapshot.position();
+            snapshot.position(start + HEADER);
+            snapshot.put(INTENT).putLong(intent.id).putLong(intent.workflowId).putLong(intent.createdAt)
+                    .putInt(intent.request.length).put(intent.request);
+            seal(snapshot, start);
+        }
+        for (Map.Entry<Long, TaskState> task : active.entrySet()) {
+            int start = snapshot.position();
+            snapshot.position(start + HEADER);
+            snapshot.put(STATUS).putLong(task.getKey()).put((byte) task.getValue().ordinal());
+            seal(snapshot, start);
+        }
+        snapshot.flip();
+
+        Path file = directory.resolve(name(SNAPSHOT_PREFIX, segmentNumber));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path old : list(SEGMENT_PREFIX).headMap(segmentNumber).values()) {
+            Files.deleteIfExists(old);
+        }
+        for (Path old : list(SNAPSHOT_PREFIX).headMap(segmentNumber).values()) {
+            Files.deleteIfExists(old);
+        }
+        firstSegment = segmentNumber;
+    }
+
+    private void seal(ByteBuffer buffer, int start) {
+        int end = buffer.position();
+        crc.reset();
+        crc.update(buffer.array(), start + HEADER, end - start - HEADER);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, end - start - HEADER);
+    }
+
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        segment = map(directory.resolve(name(SEGMENT_PREFIX, number)));
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // the mapping stays valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentBytes());
+        }
+    }
+
+    private static ByteBuffer readAll(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    /**
+     * Apply the records of a buffer up to the first missing or torn one.
+     *
+     * @param append whether the buffer is the segment to append to: it is then positioned after the last record,
+     *               and the bytes of a torn record are cleared
+     * @return the number of records applied
+     */
+    private long replay(ByteBuffer buffer, boolean append) {
+        long records = 0;
+        int position = 0;
+        int limit = buffer.limit();
+        while (position + HEADER <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > limit - position - HEADER) {
+                break;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(position + HEADER).limit(position + HEADER + length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            apply(body);
+            records++;
+            position += HEADER + length;
+        }
+        if (append) {
+            if (position + HEADER <= limit && buffer.getInt(position) != 0) {
+                for (int i = position; i < limit; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            buffer.position(position);
+        }
+        return records;
+    }
+
+    private void apply(ByteBuffer body) {
+        byte type = body.get();
+        switch (type) {
+            case INTENT: {
+                long intentId = body.getLong();
+                long workflowId = body.getLong();
+                long createdAt = body.getLong();
+                byte[] request = new byte[body.getInt()];
+                body.get(request);
+                pending.put(intentId, new Intent(intentId, workflowId, createdAt, request));
+                nextIntentId = Math.max(nextIntentId, intentId + 1);
+                break;
+            }
+            case SUBMITTED: {
+                pending.remove(body.getLong());
+                active.putIfAbsent(body.getLong(), TaskState.CREATED);
+                break;
+            }
+            case ABANDONED:
+                pending.remove(body.getLong());
+                break;
+            case STATUS: {
+                long taskId = body.getLong();
+                int state = body.get() & 0xff;
+                applyStatus(taskId, state < STATES.length ? STATES[state] : TaskState.UNKNOWN);
+                break;
+            }
+            default:
+                // written by a newer version, skip it
+        }
+    }
+
+    private void applyStatus(long taskId, TaskState state) {
+        if (state.isTerminal()) {
+            active.remove(taskId);
+        } else {
+            active.put(taskId, state);
+        }
+    }
+
+    private TreeMap<Integer, Path> list(String prefix) throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Integer.parseInt(name.substring(prefix.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String name(String prefix, int number) {
+        return String.format("%s%08d%s", prefix, number, SUFFIX);
+    }
+
+    /**
+     * A run-task call whose outcome is not journaled.
+     */
+    public static final class Intent {
+        private final long id;
+        private final long workflowId;
+        private final long createdAt;
+        private final byte[] request;
+
+        Intent(long id, long workflowId, long createdAt, byte[] request) {
+            this.id = id;
+            this.workflowId = workflowId;
+            this.createdAt = createdAt;
+            this.request = request;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getWorkflowId() {
+            return workflowId;
+        }
+
+        /**
+         * Returns when the call was about to be sent, in epoch milliseconds.
+         */
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * Returns the request that was sent, e.g. to send it again once the task is known not to exist.
+         */
+        public RunTask.RunTaskRequest getRequest() {
+            try {
+                return REQUEST_READER.readValue(request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
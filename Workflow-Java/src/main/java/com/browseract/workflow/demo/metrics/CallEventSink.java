@@ -0,0 +1,13 @@
+package com.browseract.workflow.demo.metrics;
+
+import com.browseract.workflow.demo.client.Endpoint;
+
+/**
+ * Commits the Flight Recorder event of a call. Implemented in {@code src/main/jfr}, which is compiled apart since
+ * the Java 8 API has no {@code jdk.jfr}, and loaded by {@link ClientMetrics} once Flight Recorder is known to be there.
+ */
+interface CallEventSink {
+
+    void commit(Endpoint endpoint, int status, long queueNanos, long headersNanos, long decodeNanos,
+                long bytesOut, long bytesIn);
+}
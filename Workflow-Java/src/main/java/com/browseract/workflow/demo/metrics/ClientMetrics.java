@@ -0,0 +1,202 @@
+package com.browseract.workflow.demo.metrics;
+
+import com.browseract.workflow.demo.client.Endpoint;
+
+/**
+ * The instruments of a {@link com.browseract.workflow.demo.client.WorkflowClient}, resolved once per endpoint
+ * in a {@link MetricsRegistry} so that recording a call is a few array reads and atomic updates.
+ * <p>
+ * Names are {@code workflow.<endpoint>.<phase>_ns} for the latency histograms, e.g.
+ * {@code workflow.get-task.server_ns}, and {@code workflow.<endpoint>.<counter>} for the counters, e.g.
+ * {@code workflow.run-task.status_5xx}. The DNS, connect, TLS and server phases are only known to the transport
+ * and are recorded by {@link OkHttpMetricsListener}; connection reuse is counted there too, under {@code http.*}.
+ * <p>
+ * When the JVM has Flight Recorder, each call is also committed as a {@code com.browseract.WorkflowCall}
+ * event while a recording enables it.
+ */
+public class ClientMetrics {
+
+    /**
+     * The phases of a call, each with its own latency histogram per endpoint.
+     */
+    public enum Phase {
+        /** Waiting for the concurrency limit. */
+        QUEUE("queue"),
+        DNS("dns"),
+        CONNECT("connect"),
+        TLS("tls"),
+        /** From the request written to the first response byte. */
+        SERVER("server"),
+        /** From the request handed to the transport to the response headers, connection setup included. */
+        HEADERS("headers"),
+        /** Reading and parsing the response body. */
+        DECODE("decode"),
+        /** From the call submitted to the answer decoded. */
+        TOTAL("total");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final Phase[] PHASES = Phase.values();
+    private static final CallEventSink EVENTS = loadEventSink();
+
+    private final MetricsRegistry registry;
+    private final MetricsRegistry.Histogram[][] latencies = new MetricsRegistry.Histogram[ENDPOINTS.length][PHASES.length];
+    private final MetricsRegistry.Counter[] calls = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] status2xx = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] status4xx = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] status5xx = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] throttled = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] ioErrors = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] bytesOut = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter[] bytesIn = new MetricsRegistry.Counter[ENDPOINTS.length];
+    private final MetricsRegistry.Counter newConnections;
+    private final MetricsRegistry.Counter reusedConnections;
+    private final MetricsRegistry.Counter failedConnections;
+    private final MetricsRegistry.Counter httpBytesOut;
+    private final MetricsRegistry.Counter httpBytesIn;
+
+    public ClientMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        for (Endpoint endpoint : ENDPOINTS) {
+            int e = endpoint.ordinal();
+            String prefix = "workflow." + endpoint.getPath() + ".";
+            for (Phase phase : PHASES) {
+                latencies[e][phase.ordinal()] = registry.histogram(prefix + phase.label + "_ns");
+            }
+            calls[e] = registry.counter(prefix + "calls");
+            status2xx[e] = registry.counter(prefix + "status_2xx");
+            status4xx[e] = registry.counter(prefix + "status_4xx");
+            status5xx[e] = registry.counter(prefix + "status_5xx");
+            throttled[e] = registry.counter(prefix + "status_429");
+            ioErrors[e] = registry.counter(prefix + "io_errors");
+            bytesOut[e] = registry.counter(prefix + "bytes_out");
+            bytesIn[e] = registry.counter(prefix + "bytes_in");
+        }
+        this.newConnections = registry.counter("http.connections_new");
+        this.reusedConnections = registry.counter("http.connections_reused");
+        this.failedConnections = registry.counter("http.connections_failed");
+        this.httpBytesOut = registry.counter("http.bytes_out");
+        this.httpBytesIn = registry.counter("http.bytes_in");
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Record a call that got an answer.
+     *
+     * @param status       the HTTP status of the answer
+     * @param queueNanos   time spent waiting for the concurrency limit
+     * @param headersNanos time from the request handed to the transport to the response headers
+     * @param decodeNanos  time spent reading and parsing the body, 0 if it was not parsed
+     * @param bytesOut     size of the request body
+     * @param bytesIn      size of the response body, or -1 if unknown
+     */
+    public void recordCall(Endpoint endpoint, int status, long queueNanos, long headersNanos, long decodeNanos,
+                           long bytesOut, long bytesIn) {
+        int e = endpoint.ordinal();
+        MetricsRegistry.Histogram[] phases = latencies[e];
+        phases[Phase.QUEUE.ordinal()].record(queueNanos);
+        phases[Phase.HEADERS.ordinal()].record(headersNanos);
+        phases[Phase.DECODE.ordinal()].record(decodeNanos);
+        phases[Phase.TOTAL.ordinal()].record(queueNanos + headersNanos + decodeNanos);
+        calls[e].increment(1);
+        if (status == 429) {
+            throttled[e].increment(1);
+        }
+        if (status >= 500) {
+            status5xx[e].increment(1);
+        } else if (status >= 400) {
+            status4xx[e].increment(1);
+        } else if (status >= 200 && status < 300) {
+            status2xx[e].increment(1);
+        }
+        this.bytesOut[e].increment(bytesOut);
+        if (bytesIn > 0) {
+            this.bytesIn[e].increment(bytesIn);
+        }
+        if (EVENTS != null) {
+            EVENTS.commit(endpoint, status, queueNanos, headersNanos, decodeNanos, bytesOut, bytesIn);
+        }
+    }
+
+    /**
+     * Record a call that failed without an answer, e.g. on a timeout or a refused connection.
+     */
+    public void recordFailure(Endpoint endpoint, long queueNanos, long sendNanos) {
+        int e = endpoint.ordinal();
+        latencies[e][Phase.QUEUE.ordinal()].record(queueNanos);
+        latencies[e][Phase.TOTAL.ordinal()].record(queueNanos + sendNanos);
+        calls[e].increment(1);
+        ioErrors[e].increment(1);
+        if (EVENTS != null) {
+            EVENTS.commit(endpoint, 0, queueNanos, sendNanos, 0, 0, -1);
+        }
+    }
+
+    /**
+     * Record the duration of a phase measured by the transport.
+     */
+    public void recordPhase(Endpoint endpoint, Phase phase, long nanos) {
+        latencies[endpoint.ordinal()][phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Count a connection acquired by a call, either newly opened or taken from the pool.
+     */
+    public void recordConnection(boolean reused) {
+        (reused ? reusedConnections : newConnections).increment(1);
+    }
+
+    public void recordConnectFailure() {
+        failedConnections.increment(1);
+    }
+
+    /**
+     * Count the bytes of request and response bodies as they went over the wire.
+     */
+    public void recordTransfer(long out, long in) {
+        if (out > 0) {
+            httpBytesOut.increment(out);
+        }
+        if (in > 0) {
+            httpBytesIn.increment(in);
+        }
+    }
+
+    /**
+     * Returns the endpoint whose path is the given URL path segment, or null.
+     */
+    static Endpoint endpointOf(String pathSegment) {
+        for (Endpoint endpoint : ENDPOINTS) {
+            if (endpoint.getPath().equals(pathSegment)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the sink of the Flight Recorder events, or null if the JVM has no Flight Recorder.
+     */
+    private static CallEventSink loadEventSink() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (CallEventSink) Class.forName("com.browseract.workflow.demo.metrics.WorkflowCallEvent$Sink")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.browseract.workflow.demo.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Where the client publishes its metrics, e.g. {@link SimpleMetricsRegistry} or an adapter to the metrics library
+ * of the application.
+ * <p>
+ * Instruments are looked up once, when the client is built, and then only updated: implementations must make
+ * {@link Counter#increment(long)} and {@link Histogram#record(long)} thread safe and should make them cheap
+ * and allocation free, they run on every call.
+ */
+public interface MetricsRegistry {
+
+    Counter counter(String name);
+
+    /**
+     * Returns a histogram of values in nanoseconds or bytes, as stated by the name suffix.
+     */
+    Histogram histogram(String name);
+
+    /**
+     * Register a value read when the metrics are reported, e.g. the number of calls in flight.
+     */
+    void gauge(String name, LongSupplier value);
+
+    interface Counter {
+        void increment(long amount);
+    }
+
+    interface Histogram {
+        void record(long value);
+    }
+}
@@ -0,0 +1,126 @@
+package com.browseract.workflow.demo.metrics;
+
+import com.browseract.workflow.demo.client.Endpoint;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * OkHttp listener that records the DNS, connect, TLS and server phases of the workflow API calls, and counts
+ * new and reused connections and the bytes on the wire.
+ * <p>
+ * OkHttp creates one listener per call, which holds the phase start times; nothing else is allocated.
+ * Install it on the client of the {@link com.browseract.workflow.demo.util.OkHttpTransport}:
+ * <pre>
+ * OkHttpClient client = OkHttpTransport.newClient(new HttpTransportConfig()).newBuilder()
+ *         .eventListenerFactory(OkHttpMetricsListener.factory(metrics))
+ *         .build();
+ * config.setTransport(new OkHttpTransport(client));
+ * </pre>
+ */
+public class OkHttpMetricsListener extends EventListener {
+
+    private final ClientMetrics metrics;
+    private Endpoint endpoint;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestEnd;
+    private boolean connected;
+
+    OkHttpMetricsListener(ClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public static EventListener.Factory factory(ClientMetrics metrics) {
+        return call -> new OkHttpMetricsListener(metrics);
+    }
+
+    @Override
+    public void callStart(Call call) {
+        List<String> segments = call.request().url().pathSegments();
+        endpoint = ClientMetrics.endpointOf(segments.get(segments.size() - 1));
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        record(ClientMetrics.Phase.DNS, dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        connected = true;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        record(ClientMetrics.Phase.TLS, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        record(ClientMetrics.Phase.CONNECT, connectStart);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        metrics.recordConnectFailure();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        // a connection not opened by this call came from the pool
+        metrics.recordConnection(!connected);
+        connected = false;
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+        metrics.recordTransfer(byteCount, 0);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        if (requestEnd != 0) {
+            record(ClientMetrics.Phase.SERVER, requestEnd);
+        }
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        metrics.recordTransfer(0, byteCount);
+    }
+
+    private void record(ClientMetrics.Phase phase, long start) {
+        if (endpoint != null) {
+            metrics.recordPhase(endpoint, phase, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.browseract.workflow.demo.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory {@link MetricsRegistry}: counters are {@link LongAdder}s and histograms are {@link LatencyHistogram}s,
+ * read with the getters or printed with {@link #toString()}.
+ * <pre>
+ * SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+ * config.setMetrics(new ClientMetrics(registry));
+ * ...
+ * System.out.println(registry);
+ * </pre>
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, SimpleCounter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new SimpleCounter());
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Returns the value of a counter or gauge, or 0 if there is none with this name.
+     */
+    public long getValue(String name) {
+        SimpleCounter counter = counters.get(name);
+        if (counter != null) {
+            return counter.sum();
+        }
+        LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+
+    /**
+     * Returns the histogram with this name, or null.
+     */
+    public LatencyHistogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Lists the non-zero counters, the gauges and the recorded histograms, one per line, sorted by name.
+     * Histograms named {@code *_ns} are printed in milliseconds.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, SimpleCounter> counter : counters.entrySet()) {
+            long value = counter.getValue().sum();
+            if (value != 0) {
+                text.append(counter.getKey()).append(' ').append(value).append('\n');
+            }
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            text.append(gauge.getKey()).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            boolean nanos = entry.getKey().endsWith("_ns");
+            text.append(entry.getKey()).append(" count=").append(histogram.getCount())
+                    .append(" p50=").append(format(histogram.getPercentile(0.5), nanos))
+                    .append(" p90=").append(format(histogram.getPercentile(0.9), nanos))
+                    .append(" p99=").append(format(histogram.getPercentile(0.99), nanos))
+                    .append(" max=").append(format(histogram.getMax(), nanos))
+                    .append(nanos ? " ms" : "").append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String format(long value, boolean nanos) {
+        if (!nanos) {
+            return Long.toString(value);
+        }
+        return String.format("%.2f", value / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static class SimpleCounter extends LongAdder implements Counter {
+        @Override
+        public void increment(long amount) {
+            add(amount);
+        }
+    }
+}
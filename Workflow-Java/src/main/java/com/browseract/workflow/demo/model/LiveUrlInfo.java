@@ -0,0 +1,41 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Address and viewport of the live browser view of a task.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LiveUrlInfo {
+
+    private int width;
+
+    private int height;
+
+    private String live_url;
+
+    // Getters and Setters
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public String getLive_url() {
+        return live_url;
+    }
+
+    public void setLive_url(String live_url) {
+        this.live_url = live_url;
+    }
+}
@@ -0,0 +1,70 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One page of list-tasks or list-workflows, e.g.
+ * {"page": 1, "limit": 10, "items": [], "total_pages": 0, "total_count": 0}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Page<T> {
+
+    /**
+     * Page number, starting at 1.
+     */
+    private int page;
+
+    /**
+     * Maximum number of items per page.
+     */
+    private int limit;
+
+    private List<T> items;
+
+    private int total_pages;
+
+    private long total_count;
+
+    // Getters and Setters
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getTotal_pages() {
+        return total_pages;
+    }
+
+    public void setTotal_pages(int total_pages) {
+        this.total_pages = total_pages;
+    }
+
+    public long getTotal_count() {
+        return total_count;
+    }
+
+    public void setTotal_count(long total_count) {
+        this.total_count = total_count;
+    }
+}
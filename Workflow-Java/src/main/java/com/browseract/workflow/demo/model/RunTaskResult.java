@@ -0,0 +1,37 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Answer of run-task, e.g. {"id": "12425895140306551", "profileId": "abcde"}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RunTaskResult {
+
+    /**
+     * ID of the created task, used by all other task endpoints.
+     */
+    private long id;
+
+    /**
+     * Browser profile used by the task, returned when save_browser_data is set.
+     */
+    private String profileId;
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getProfileId() {
+        return profileId;
+    }
+
+    public void setProfileId(String profileId) {
+        this.profileId = profileId;
+    }
+}
@@ -0,0 +1,89 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One step executed by the browser agent while running a task.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Step {
+
+    /**
+     * Unique ID of the step.
+     */
+    private long id;
+
+    /**
+     * Position of the step in the task, starting at 1.
+     */
+    private int step;
+
+    /**
+     * Result of the step, e.g. "succeed".
+     */
+    private String status;
+
+    /**
+     * The agent's evaluation of the previous step goal.
+     */
+    private String evaluation_previous_goal;
+
+    /**
+     * What the agent tries to achieve in this step.
+     */
+    private String step_goal;
+
+    /**
+     * Screenshot of the page taken during the step.
+     */
+    private String screenshots_url;
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public void setStep(int step) {
+        this.step = step;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getEvaluation_previous_goal() {
+        return evaluation_previous_goal;
+    }
+
+    public void setEvaluation_previous_goal(String evaluation_previous_goal) {
+        this.evaluation_previous_goal = evaluation_previous_goal;
+    }
+
+    public String getStep_goal() {
+        return step_goal;
+    }
+
+    public void setStep_goal(String step_goal) {
+        this.step_goal = step_goal;
+    }
+
+    public String getScreenshots_url() {
+        return screenshots_url;
+    }
+
+    public void setScreenshots_url(String screenshots_url) {
+        this.screenshots_url = screenshots_url;
+    }
+}
@@ -0,0 +1,152 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * A workflow task, as returned by get-task, list-tasks and the task callbacks.
+ * <p>
+ * list-tasks items carry no steps.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Task {
+
+    private long id;
+
+    private long workflow_id;
+
+    private TaskState status;
+
+    /**
+     * Steps executed so far, only returned by get-task and the callbacks.
+     */
+    private List<Step> steps;
+
+    private TaskOutput output;
+
+    private LiveUrlInfo live_url_info;
+
+    private String live_url;
+
+    private String profile_id;
+
+    /**
+     * Creation time, ISO-8601 in UTC, e.g. 2025-10-08T10:17:54Z
+     */
+    private String created_at;
+
+    /**
+     * Finish time, ISO-8601 in UTC
+     */
+    private String finished_at;
+
+    /**
+     * Failure reason, set when the task failed.
+     */
+    private TaskFailureInfo task_failure_info;
+
+    /**
+     * Input parameters of the task, as sent to run-task: an array of {"name": ..., "value": ...} objects.
+     * Kept as a tree since older tasks may carry them as a single string instead.
+     */
+    private JsonNode input_parameters;
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getWorkflow_id() {
+        return workflow_id;
+    }
+
+    public void setWorkflow_id(long workflow_id) {
+        this.workflow_id = workflow_id;
+    }
+
+    public TaskState getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskState status) {
+        this.status = status;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    public TaskOutput getOutput() {
+        return output;
+    }
+
+    public void setOutput(TaskOutput output) {
+        this.output = output;
+    }
+
+    public LiveUrlInfo getLive_url_info() {
+        return live_url_info;
+    }
+
+    public void setLive_url_info(LiveUrlInfo live_url_info) {
+        this.live_url_info = live_url_info;
+    }
+
+    public String getLive_url() {
+        return live_url;
+    }
+
+    public void setLive_url(String live_url) {
+        this.live_url = live_url;
+    }
+
+    public String getProfile_id() {
+        return profile_id;
+    }
+
+    public void setProfile_id(String profile_id) {
+        this.profile_id = profile_id;
+    }
+
+    public String getCreated_at() {
+        return created_at;
+    }
+
+    public void setCreated_at(String created_at) {
+        this.created_at = created_at;
+    }
+
+    public String getFinished_at() {
+        return finished_at;
+    }
+
+    public void setFinished_at(String finished_at) {
+        this.finished_at = finished_at;
+    }
+
+    public TaskFailureInfo getTask_failure_info() {
+        return task_failure_info;
+    }
+
+    public void setTask_failure_info(TaskFailureInfo task_failure_info) {
+        this.task_failure_info = task_failure_info;
+    }
+
+    public JsonNode getInput_parameters() {
+        return input_parameters;
+    }
+
+    public void setInput_parameters(JsonNode input_parameters) {
+        this.input_parameters = input_parameters;
+    }
+}
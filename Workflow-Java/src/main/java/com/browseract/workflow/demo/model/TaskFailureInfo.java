@@ -0,0 +1,31 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Why a task failed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskFailureInfo {
+
+    private int code;
+
+    private String message;
+
+    // Getters and Setters
+    public int getCode() {
+        return code;
+    }
+
+    public void setCode(int code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
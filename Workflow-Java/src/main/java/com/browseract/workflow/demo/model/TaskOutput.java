@@ -0,0 +1,39 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Output of a finished task.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskOutput {
+
+    /**
+     * Text output of the task.
+     */
+    private String string;
+
+    /**
+     * URLs of the files produced by the task.
+     */
+    private List<String> files;
+
+    // Getters and Setters
+    public String getString() {
+        return string;
+    }
+
+    public void setString(String string) {
+        this.string = string;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<String> files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,53 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Lifecycle state of a task.
+ * Values the client does not know yet are mapped to {@link #UNKNOWN} instead of failing the decoding.
+ */
+public enum TaskState {
+    CREATED("created"),
+    RUNNING("running"),
+    PAUSED("paused"),
+    FINISHED("finished"),
+    FAILED("failed"),
+    CANCELED("canceled"),
+    UNKNOWN("unknown");
+
+    private static final TaskState[] VALUES = values();
+
+    private final String value;
+
+    TaskState(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Whether the task will not change anymore: finished, failed or canceled.
+     */
+    public boolean isTerminal() {
+        return this == FINISHED || this == FAILED || this == CANCELED;
+    }
+
+    @JsonCreator
+    public static TaskState fromValue(String value) {
+        if (value != null) {
+            if ("cancelled".equalsIgnoreCase(value)) {
+                return CANCELED;
+            }
+            for (TaskState state : VALUES) {
+                if (state.value.equalsIgnoreCase(value)) {
+                    return state;
+                }
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Answer of the lightweight get-task-status endpoint, e.g. {"status": "running"}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskStatus {
+
+    private TaskState status;
+
+    // Getters and Setters
+    public TaskState getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskState status) {
+        this.status = status;
+    }
+}
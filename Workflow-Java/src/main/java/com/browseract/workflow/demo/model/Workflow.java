@@ -0,0 +1,82 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * A workflow, as returned by get-workflow and list-workflows.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Workflow {
+
+    private long id;
+
+    private String name;
+
+    private String description;
+
+    /**
+     * Creation time, ISO-8601 in UTC, e.g. 2025-10-07T06:15:24Z
+     */
+    private String create_at;
+
+    /**
+     * Last publication time, ISO-8601 in UTC
+     */
+    private String publish_at;
+
+    /**
+     * Input parameters, only returned by get-workflow.
+     */
+    private List<WorkflowParameter> input_parameters;
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCreate_at() {
+        return create_at;
+    }
+
+    public void setCreate_at(String create_at) {
+        this.create_at = create_at;
+    }
+
+    public String getPublish_at() {
+        return publish_at;
+    }
+
+    public void setPublish_at(String publish_at) {
+        this.publish_at = publish_at;
+    }
+
+    public List<WorkflowParameter> getInput_parameters() {
+        return input_parameters;
+    }
+
+    public void setInput_parameters(List<WorkflowParameter> input_parameters) {
+        this.input_parameters = input_parameters;
+    }
+}
@@ -0,0 +1,31 @@
+package com.browseract.workflow.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * An input parameter declared by a workflow.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WorkflowParameter {
+
+    private String name;
+
+    private boolean default_enabled;
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isDefault_enabled() {
+        return default_enabled;
+    }
+
+    public void setDefault_enabled(boolean default_enabled) {
+        this.default_enabled = default_enabled;
+    }
+}
@@ -0,0 +1,94 @@
+package com.browseract.workflow.demo.sharding;
+
+/**
+ * One API key of an {@link ApiKeyPool}, with its share of the traffic and its limits.
+ */
+public class ApiKeyConfig {
+
+    /**
+     * Name of the key in reports and logs, the key itself is never printed.
+     */
+    private String name;
+
+    /**
+     * API Key Required for API Call, generated from: https://www.browseract.com/reception/integrations
+     */
+    private String apiKey;
+
+    /**
+     * Relative share of the new tasks sent with this key, e.g. 2 for an account with twice the quota of the others.
+     */
+    private int weight = 1;
+
+    /**
+     * Maximum number of calls sent concurrently with this key.
+     */
+    private int maxInFlight = 64;
+
+    /**
+     * Maximum number of calls per second sent with this key, 0 for no limit.
+     */
+    private double maxCallsPerSecond;
+
+    /**
+     * Address of the workflow API for this key. When null, the one of the pool is used.
+     */
+    private String baseUrl;
+
+    public ApiKeyConfig() {
+    }
+
+    public ApiKeyConfig(String name, String apiKey) {
+        this.name = name;
+        this.apiKey = apiKey;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public double getMaxCallsPerSecond() {
+        return maxCallsPerSecond;
+    }
+
+    public void setMaxCallsPerSecond(double maxCallsPerSecond) {
+        this.maxCallsPerSecond = maxCallsPerSecond;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+}
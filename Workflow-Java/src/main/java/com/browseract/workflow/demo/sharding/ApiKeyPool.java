@@ -0,0 +1,471 @@
+package com.browseract.workflow.demo.sharding;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.client.WorkflowClientConfig;
+import com.browseract.workflow.demo.model.RunTaskResult;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskStatus;
+import com.browseract.workflow.demo.tracking.TaskPoller;
+import com.browseract.workflow.demo.util.Threads;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Shares the calls of one application between several API keys, so the throughput is the sum of the quotas of
+ * their accounts rather than the quota of one.
+ * <p>
+ * Each key has its own {@link WorkflowClient}, which bounds its calls in flight, and an optional rate limit.
+ * New tasks go to the keys by smooth weighted round robin, or, when they have a routing key, to the key owning
+ * it on a consistent hash ring. A key is drained, and its share moved to the others, when the API pushes it back
+ * (429 or 10118) or when its calls fail in a row; once its cooldown is over it gets a single call, and takes
+ * its share again when that one succeeds. A saturated key, whose calls queue behind its limits, is passed over
+ * while another is not.
+ * <p>
+ * A browser profile belongs to one account, so a task with a profile_id always goes to the key of the profile:
+ * the one it was {@link #assignProfile assigned} to or created with, else its owner on the ring, drained or not.
+ * The pool remembers the key each task was created with, and sends every later call for the task with it.
+ * A task the pool did not create is looked up with each key in turn.
+ * <pre>
+ * KeyPoolConfig config = new KeyPoolConfig()
+ *         .addKey(new ApiKeyConfig("team-a", keyA))
+ *         .addKey(new ApiKeyConfig("team-b", keyB));
+ * try (ApiKeyPool pool = new ApiKeyPool(config)) {
+ *     long taskId = pool.runTask(request).join().getId();
+ *     pool.stopTask(taskId).join();   // sent with the key that created the task
+ * }
+ * </pre>
+ */
+public class ApiKeyPool implements Closeable {
+
+    private final KeyPoolConfig config;
+    private final List<Shard> shards;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, Shard> affinity = new ConcurrentHashMap<>();
+    private final Map<String, Shard> profiles = new ConcurrentHashMap<>();
+    /**
+     * Calls waiting for the rate limit of their key, failed if the pool is closed before they are sent.
+     */
+    private final Set<CompletableFuture<?>> delayed = ConcurrentHashMap.newKeySet();
+
+    // consistent hash ring: sorted point hashes and the shard owning each point
+    private final long[] ringHashes;
+    private final Shard[] ringOwners;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ApiKeyPool(KeyPoolConfig config) {
+        if (config.getKeys() == null || config.getKeys().isEmpty()) {
+            throw new IllegalArgumentException("at least one API key is required");
+        }
+        this.config = config;
+        List<Shard> shards = new ArrayList<>();
+        for (ApiKeyConfig key : config.getKeys()) {
+            shards.add(new Shard(key, newClient(key)));
+        }
+        this.shards = Collections.unmodifiableList(shards);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Threads.daemonThreads("key-pool"));
+
+        List<long[]> points = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            int count = Math.max(1, config.getVirtualNodes()) * Math.max(1, shards.get(i).weight);
+            for (int j = 0; j < count; j++) {
+                points.add(new long[]{hash(shards.get(i).name + "#" + j), i});
+            }
+        }
+        points.sort((a, b) -> Long.compare(a[0], b[0]));
+        this.ringHashes = new long[points.size()];
+        this.ringOwners = new Shard[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            ringHashes[i] = points.get(i)[0];
+            ringOwners[i] = shards.get((int) points.get(i)[1]);
+        }
+    }
+
+    /**
+     * Start a new workflow task, with the key of its profile if it has one, else the next key by weight.
+     */
+    public CompletableFuture<RunTaskResult> runTask(RunTask.RunTaskRequest request) {
+        String profileId = request.getProfile_id();
+        if (profileId == null) {
+            return runTask(pickWeighted(), request);
+        }
+        Shard shard = profiles.get(profileId);
+        return runTask(shard != null ? shard : ringOwner(profileId), request);
+    }
+
+    /**
+     * Start a new workflow task with the key owning the routing key on the hash ring,
+     * or the next one not drained. A null routing key routes by weight.
+     */
+    public CompletableFuture<RunTaskResult> runTask(String routingKey, RunTask.RunTaskRequest request) {
+        return runTask(routingKey == null ? pickWeighted() : pickHashed(routingKey), request);
+    }
+
+    private CompletableFuture<RunTaskResult> runTask(Shard shard, RunTask.RunTaskRequest request) {
+        return send(shard, client -> client.runTask(request)).thenApply(result -> {
+            affinity.put(result.getId(), shard);
+            if (result.getProfileId() != null) {
+                // a profile created by the task lives in the account of its key
+                profiles.putIfAbsent(result.getProfileId(), shard);
+            }
+            return result;
+        });
+    }
+
+    public CompletableFuture<Void> stopTask(long taskId) {
+        return withTask(taskId, client -> client.stopTask(taskId));
+    }
+
+    public CompletableFuture<Void> resumeTask(long taskId) {
+        return withTask(taskId, client -> client.resumeTask(taskId));
+    }
+
+    public CompletableFuture<Task> getTask(long taskId) {
+        return withTask(taskId, client -> client.getTask(taskId));
+    }
+
+    public CompletableFuture<TaskStatus> getTaskStatus(long taskId) {
+        return withTask(taskId, client -> client.getTaskStatus(taskId));
+    }
+
+    /**
+     * Returns the client of the key a task was created with, or null if the pool does not know the task.
+     */
+    public WorkflowClient clientOf(long taskId) {
+        Shard shard = affinity.get(taskId);
+        return shard == null ? null : shard.client;
+    }
+
+    /**
+     * Returns the name of the key a task was created with, or null if the pool does not know the task.
+     */
+    public String keyOf(long taskId) {
+        Shard shard = affinity.get(taskId);
+        return shard == null ? null : shard.name;
+    }
+
+    /**
+     * Tell the key a task was created with, e.g. after a restart.
+     */
+    public void assign(long taskId, String keyName) {
+        affinity.put(taskId, shard(keyName));
+    }
+
+    /**
+     * Tell the key of the account a browser profile belongs to.
+     */
+    public void assignProfile(String profileId, String keyName) {
+        profiles.put(profileId, shard(keyName));
+    }
+
+    /**
+     * Drop what the pool remembers of a task, once no call is needed for it anymore.
+     */
+    public void forget(long taskId) {
+        affinity.remove(taskId);
+    }
+
+    /**
+     * Returns the client of a key, e.g. to list the tasks of its account.
+     */
+    public WorkflowClient getClient(String keyName) {
+        return shard(keyName).client;
+    }
+
+    public List<KeyStats> getStats() {
+        long now = System.currentTimeMillis();
+        List<KeyStats> stats = new ArrayList<>();
+        for (Shard shard : shards) {
+            stats.add(new KeyStats(shard.name, shard.calls.sum(), shard.throttled.sum(), shard.failures.sum(),
+                    shard.client.getLimiter().getInFlight(), Math.max(0, shard.drainedUntil - now)));
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (CompletableFuture<?> call : delayed) {
+            call.completeExceptionally(closed());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getStats().toString();
+    }
+
+    private WorkflowClient newClient(ApiKeyConfig key) {
+        WorkflowClientConfig clientConfig = new WorkflowClientConfig(key.getApiKey());
+        clientConfig.setBaseUrl(key.getBaseUrl() != null ? key.getBaseUrl() : config.getBaseUrl());
+        clientConfig.setTransport(config.getTransport());
+        clientConfig.setMaxInFlight(key.getMaxInFlight());
+        return new WorkflowClient(clientConfig);
+    }
+
+    private Shard shard(String keyName) {
+        for (Shard shard : shards) {
+            if (shard.name.equals(keyName)) {
+                return shard;
+            }
+        }
+        throw new IllegalArgumentException("unknown API key: " + keyName);
+    }
+
+    /**
+     * Smooth weighted round robin over the keys taking new tasks, saturated keys last.
+     * When every key is drained, the one back the soonest is used.
+     */
+    private Shard pickWeighted() {
+        long now = System.currentTimeMillis();
+        long nanos = System.nanoTime();
+        lock.lock();
+        try {
+            Shard best = pickWeighted(now, nanos, false);
+            if (best == null) {
+                best = pickWeighted(now, nanos, true);
+            }
+            return best != null ? best : soonestBack();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // requires lock
+    private Shard pickWeighted(long now, long nanos, boolean saturatedToo) {
+        Shard best = null;
+        int total = 0;
+        for (Shard shard : shards) {
+            if (shard.isDrained(now) || (!saturatedToo && shard.isSaturated(nanos))) {
+                continue;
+            }
+            shard.currentWeight += shard.weight;
+            total += shard.weight;
+            if (best == null || shard.currentWeight > best.currentWeight) {
+                best = shard;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= total;
+            best.takeProbe();
+        }
+        return best;
+    }
+
+    /**
+     * The owner of the first ring point at or after the hash of the routing key, skipping drained keys.
+     */
+    private Shard pickHashed(String routingKey) {
+        long now = System.currentTimeMillis();
+        int index = ringIndex(routingKey);
+        for (int i = 0; i < ringHashes.length; i++) {
+            Shard owner = ringOwners[(index + i) % ringHashes.length];
+            if (!owner.isDrained(now) && owner.takeProbe()) {
+                return owner;
+            }
+        }
+        return soonestBack();
+    }
+
+    private Shard ringOwner(String routingKey) {
+        return ringOwners[ringIndex(routingKey) % ringHashes.length];
+    }
+
+    private int ringIndex(String routingKey) {
+        int index = Arrays.binarySearch(ringHashes, hash(routingKey));
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private Shard soonestBack() {
+        Shard soonest = shards.get(0);
+        for (Shard shard : shards) {
+            if (shard.drainedUntil < soonest.drainedUntil) {
+                soonest = shard;
+            }
+        }
+        return soonest;
+    }
+
+    private <T> CompletableFuture<T> withTask(long taskId, Function<WorkflowClient, CompletableFuture<T>> call) {
+        Shard shard = affinity.get(taskId);
+        return shard != null ? send(shard, call) : probe(taskId, call, 0);
+    }
+
+    /**
+     * Send a call for a task of unknown key with each key in turn, until one knows the task.
+     */
+    private <T> CompletableFuture<T> probe(long taskId, Function<WorkflowClient, CompletableFuture<T>> call, int index) {
+        Shard shard = shards.get(index);
+        return send(shard, call).handle((result, error) -> {
+            if (error == null) {
+                affinity.put(taskId, shard);
+                return CompletableFuture.completedFuture(result);
+            }
+            WorkflowApiException apiError = WorkflowApiException.from(error);
+            if (apiError != null && apiError.getErrorCode() == TaskPoller.TASK_NOT_EXIST && index + 1 < shards.size()) {
+                return probe(taskId, call, index + 1);
+            }
+            return Futures.<T>failed(error);
+        }).thenCompose(Function.identity());
+    }
+
+    private <T> CompletableFuture<T> send(Shard shard, Function<WorkflowClient, CompletableFuture<T>> call) {
+        shard.calls.increment();
+        long delay = shard.bucket == null ? 0 : shard.bucket.reserve(System.nanoTime());
+        CompletableFuture<T> result;
+        if (delay <= 0) {
+            result = apply(shard, call);
+        } else {
+            CompletableFuture<T> later = new CompletableFuture<>();
+            delayed.add(later);
+            later.whenComplete((value, error) -> delayed.remove(later));
+            try {
+                scheduler.schedule(() -> apply(shard, call).whenComplete((value, error) -> {
+                    if (error == null) {
+                        later.complete(value);
+                    } else {
+                        later.completeExceptionally(error);
+                    }
+                }), delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                later.completeExceptionally(closed());
+            }
+            result = later;
+        }
+        // every call reports its outcome, or a recovering key would wait for its probe forever
+        return result.whenComplete((ignored, error) -> shard.onOutcome(error));
+    }
+
+    private static <T> CompletableFuture<T> apply(Shard shard, Function<WorkflowClient, CompletableFuture<T>> call) {
+        try {
+            return call.apply(shard.client);
+        } catch (RuntimeException e) {
+            return Futures.failed(e);
+        }
+    }
+
+    private static RejectedExecutionException closed() {
+        return new RejectedExecutionException("the key pool is closed");
+    }
+
+    private static long hash(String value) {
+        // FNV-1a, then the murmur3 finalizer to spread nearby values over the ring
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * One key: its client, limits and health.
+     */
+    private final class Shard {
+        final String name;
+        final int weight;
+        final WorkflowClient client;
+        final TokenBucket bucket;
+        final LongAdder calls = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        volatile long drainedUntil;
+        // drained and not back yet: takes one call at a time until one succeeds
+        volatile boolean recovering;
+        final AtomicBoolean probing = new AtomicBoolean();
+        // guarded by ApiKeyPool.this.lock
+        int currentWeight;
+        // guarded by this
+        private int failuresInRow;
+        private long cooldownMillis;
+
+        Shard(ApiKeyConfig key, WorkflowClient client) {
+            this.name = key.getName() != null ? key.getName() : "key-" + config.getKeys().indexOf(key);
+            this.weight = Math.max(1, key.getWeight());
+            this.client = client;
+            this.bucket = key.getMaxCallsPerSecond() > 0
+                    ? new TokenBucket(key.getMaxCallsPerSecond(), System.nanoTime())
+                    : null;
+        }
+
+        boolean isDrained(long now) {
+            return now < drainedUntil || (recovering && probing.get());
+        }
+
+        /**
+         * Take the single call of a recovering key, false if it is already taken.
+         */
+        boolean takeProbe() {
+            return !recovering || probing.compareAndSet(false, true);
+        }
+
+        /**
+         * Whether a new call would wait behind the limits of the key.
+         */
+        boolean isSaturated(long nanos) {
+            return client.getLimiter().getWaiting() > 0 || (bucket != null && bucket.isEmpty(nanos));
+        }
+
+        void onOutcome(Throwable error) {
+            WorkflowApiException apiError = error == null ? null : WorkflowApiException.from(error);
+            synchronized (this) {
+                if (error == null || (apiError != null && !apiError.isThrottled() && !apiError.isServerError())) {
+                    // answered, a refused call says nothing against the key
+                    failuresInRow = 0;
+                    cooldownMillis = 0;
+                    recovering = false;
+                    probing.set(false);
+                } else if (apiError != null && apiError.isThrottled()) {
+                    throttled.increment();
+                    drain(apiError.getRetryAfterMillis());
+                } else {
+                    failures.increment();
+                    if (++failuresInRow >= config.getFailureThreshold() || recovering) {
+                        failuresInRow = 0;
+                        drain(0);
+                    }
+                }
+            }
+        }
+
+        // requires this
+        private void drain(long retryAfterMillis) {
+            long now = System.currentTimeMillis();
+            if (now < drainedUntil) {
+                // calls sent before the drain, it is not escalated again
+                return;
+            }
+            cooldownMillis = cooldownMillis == 0
+                    ? config.getInitialCooldownMillis()
+                    : Math.min(config.getMaxCooldownMillis(), cooldownMillis * 2);
+            drainedUntil = now + Math.max(cooldownMillis, retryAfterMillis);
+            recovering = true;
+            probing.set(false);
+        }
+    }
+}
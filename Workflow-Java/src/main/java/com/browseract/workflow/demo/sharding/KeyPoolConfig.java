@@ -0,0 +1,118 @@
+package com.browseract.workflow.demo.sharding;
+
+import com.browseract.workflow.demo.client.WorkflowClientConfig;
+import com.browseract.workflow.demo.util.HttpTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of an {@link ApiKeyPool}.
+ */
+public class KeyPoolConfig {
+
+    /**
+     * The keys to share the calls between, at least one.
+     */
+    private List<ApiKeyConfig> keys = new ArrayList<>();
+
+    /**
+     * Address of the workflow API, for the keys without their own.
+     */
+    private String baseUrl = WorkflowClientConfig.DEFAULT_BASE_URL;
+
+    /**
+     * HTTP stack shared by the clients of all keys, the default one when null.
+     */
+    private HttpTransport transport;
+
+    /**
+     * Points of each key on the hash ring per unit of weight. More points spread the routing keys more evenly.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * Number of calls in a row failing with IO or server errors after which a key is drained.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * Time a throttled or failing key is drained for, doubled each time it is drained again before
+     * a call succeeds. A Retry-After sent by the API is honored when longer.
+     */
+    private long initialCooldownMillis = 1000;
+
+    /**
+     * Upper bound of the drain time.
+     */
+    private long maxCooldownMillis = 60000;
+
+    public KeyPoolConfig() {
+    }
+
+    public KeyPoolConfig(List<ApiKeyConfig> keys) {
+        this.keys = keys;
+    }
+
+    // Getters and Setters
+    public List<ApiKeyConfig> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<ApiKeyConfig> keys) {
+        this.keys = keys;
+    }
+
+    public KeyPoolConfig addKey(ApiKeyConfig key) {
+        keys.add(key);
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getInitialCooldownMillis() {
+        return initialCooldownMillis;
+    }
+
+    public void setInitialCooldownMillis(long initialCooldownMillis) {
+        this.initialCooldownMillis = initialCooldownMillis;
+    }
+
+    public long getMaxCooldownMillis() {
+        return maxCooldownMillis;
+    }
+
+    public void setMaxCooldownMillis(long maxCooldownMillis) {
+        this.maxCooldownMillis = maxCooldownMillis;
+    }
+}
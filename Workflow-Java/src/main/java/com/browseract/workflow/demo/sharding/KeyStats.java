@@ -0,0 +1,69 @@
+package com.browseract.workflow.demo.sharding;
+
+/**
+ * Counters of one key of an {@link ApiKeyPool}, as of the time they were read.
+ */
+public class KeyStats {
+
+    private final String name;
+    private final long calls;
+    private final long throttled;
+    private final long failures;
+    private final int inFlight;
+    private final long drainedMillis;
+
+    public KeyStats(String name, long calls, long throttled, long failures, int inFlight, long drainedMillis) {
+        this.name = name;
+        this.calls = calls;
+        this.throttled = throttled;
+        this.failures = failures;
+        this.inFlight = inFlight;
+        this.drainedMillis = drainedMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of calls sent with the key.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the number of calls pushed back with 429 or 10118.
+     */
+    public long getThrottled() {
+        return throttled;
+    }
+
+    /**
+     * Returns the number of calls failed with IO or server errors.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns how long the key stays drained, 0 if it takes new tasks.
+     */
+    public long getDrainedMillis() {
+        return drainedMillis;
+    }
+
+    public boolean isDrained() {
+        return drainedMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": calls=" + calls + " throttled=" + throttled + " failures=" + failures
+                + " inFlight=" + inFlight + (drainedMillis > 0 ? " drained=" + drainedMillis + "ms" : "");
+    }
+}
@@ -0,0 +1,46 @@
+package com.browseract.workflow.demo.sharding;
+
+/**
+ * Paces the calls of one key to a number per second, allowing a burst of up to one second of calls.
+ * <p>
+ * A call takes a token whether one is left or not, and is told how long to wait for it, so callers are never
+ * blocked: the debt of the bucket is the queue of delayed calls.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    // guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double callsPerSecond, long now) {
+        this.tokensPerNano = callsPerSecond / 1e9;
+        this.capacity = Math.max(1, callsPerSecond);
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Take a token, and return the nanoseconds to wait before using it.
+     */
+    synchronized long reserve(long now) {
+        refill(now);
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Whether a call taking a token now would have to wait.
+     */
+    synchronized boolean isEmpty(long now) {
+        refill(now);
+        return tokens < 1;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
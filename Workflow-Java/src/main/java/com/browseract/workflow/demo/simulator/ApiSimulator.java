@@ -0,0 +1,639 @@
+package com.browseract.workflow.demo.simulator;
+
+import com.browseract.workflow.demo.callback.CallbackSender;
+import com.browseract.workflow.demo.model.Page;
+import com.browseract.workflow.demo.model.Step;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskFailureInfo;
+import com.browseract.workflow.demo.model.TaskOutput;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.model.TaskStatus;
+import com.browseract.workflow.demo.model.Workflow;
+import com.browseract.workflow.demo.model.WorkflowParameter;
+import com.browseract.workflow.demo.util.UrlConnectionTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the workflow API, for load tests and capacity planning without touching production.
+ * <p>
+ * It serves the eight {@code /v2/workflow/*} endpoints with the payloads of the real API. Each task goes through
+ * the real life cycle: created, running with a new step every {@link SimulatorConfig#getStepDuration()},
+ * optionally paused until resume-task, then finished or failed; stop-task cancels it. Status changes are posted
+ * to {@code status_change_callback_url}, and the final task to {@code callback_url}.
+ * <p>
+ * Every answer is delayed by a sample of {@link SimulatorConfig#getLatency()}, and a configurable share of the
+ * calls fails with 500 or 429. run-task answers 10118 once {@link SimulatorConfig#getMaxRunningTasks()} tasks
+ * are in progress. Any API key is accepted, but the Authorization header is required.
+ * <pre>
+ * ApiSimulator.useNoDelay();
+ * try (ApiSimulator simulator = new ApiSimulator(config)) {
+ *     simulator.start();
+ *     WorkflowClientConfig clientConfig = new WorkflowClientConfig("any-key");
+ *     clientConfig.setBaseUrl(simulator.getBaseUrl());
+ *     ...
+ * }
+ * </pre>
+ */
+public class ApiSimulator implements Closeable {
+
+    public static final int TASK_NOT_EXIST = 10112;
+    public static final int RUNNING_TASKS_EXCEEDED = 10118;
+
+    private static final String PREFIX = "/v2/workflow/";
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimulatorConfig config;
+    private final NavigableMap<Long, SimulatedTask> tasks = new ConcurrentSkipListMap<>(Collections.reverseOrder());
+    private final Map<Long, Workflow> workflows = new LinkedHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(70_000_000_000_000_000L);
+    private final AtomicInteger inProgress = new AtomicInteger();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong callbacks = new AtomicLong();
+
+    private final CallbackSender callbackSender = new CallbackSender(new UrlConnectionTransport());
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService callbackPool;
+
+    public ApiSimulator() {
+        this(new SimulatorConfig());
+    }
+
+    /**
+     * Send the answers of the JDK HTTP servers of this JVM without delay. They write the headers and the body
+     * apart, so Nagle's algorithm and delayed ACKs otherwise add about 40 ms to every answer, which would
+     * dwarf the simulated latency.
+     * <p>
+     * The JDK reads the setting once, when the first server of the JVM is created, and applies it to all of
+     * them, the {@link com.browseract.workflow.demo.callback.CallbackServer} included. So it is left to the
+     * programs that measure latency to call this first thing, rather than done by the simulator itself.
+     */
+    public static void useNoDelay() {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public ApiSimulator(SimulatorConfig config) {
+        this.config = config;
+        for (int i = 1; i <= config.getWorkflowCount(); i++) {
+            Workflow workflow = new Workflow();
+            workflow.setId(nextId.incrementAndGet());
+            workflow.setName("Simulated workflow " + i);
+            workflow.setDescription("Workflow served by the API simulator");
+            workflow.setCreate_at(timestamp(System.currentTimeMillis()));
+            workflow.setPublish_at(workflow.getCreate_at());
+            WorkflowParameter parameter = new WorkflowParameter();
+            parameter.setName("KeyWord");
+            parameter.setDefault_enabled(true);
+            workflow.setInput_parameters(Collections.singletonList(parameter));
+            workflows.put(workflow.getId(), workflow);
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("already started");
+        }
+        handlers = Executors.newFixedThreadPool(config.getThreads(), daemonThreads("simulator-http"));
+        scheduler = Executors.newScheduledThreadPool(config.getThreads(), daemonThreads("simulator-timer"));
+        callbackPool = Executors.newFixedThreadPool(4, daemonThreads("simulator-callback"));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.getPort()), 1024);
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    /**
+     * Returns the base URL to configure in the client, e.g. http://127.0.0.1:8090/v2/workflow
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PREFIX.substring(0, PREFIX.length() - 1);
+    }
+
+    /**
+     * Returns the IDs of the simulated workflows.
+     */
+    public List<Long> getWorkflowIds() {
+        return new ArrayList<>(workflows.keySet());
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of calls failed on purpose with a 500 answer.
+     */
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Returns the number of calls answered 429.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public long getCallbacks() {
+        return callbacks.get();
+    }
+
+    /**
+     * Returns the number of tasks created, running or paused.
+     */
+    public int getInProgress() {
+        return inProgress.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+            scheduler.shutdownNow();
+            callbackPool.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        Answer answer;
+        try {
+            answer = route(exchange);
+        } catch (IOException e) {
+            answer = Answer.error(400, 400, "Invalid request: " + e.getMessage());
+        } catch (RuntimeException e) {
+            answer = Answer.error(500, 500, "Internal error: " + e.getMessage());
+        }
+        Answer reply = answer;
+        // the answer waits on the timer instead of a sleeping thread, so latency does not cap the throughput
+        scheduler.schedule(() -> send(exchange, reply), config.getLatency().sample(), TimeUnit.MILLISECONDS);
+    }
+
+    private Answer route(HttpExchange exchange) throws IOException {
+        byte[] body = readBody(exchange.getRequestBody());
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Answer.error(401, 401, "Unauthorized");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < config.getThrottleRate()) {
+            throttled.incrementAndGet();
+            Answer answer = Answer.error(429, 429, "Too many requests");
+            answer.retryAfterSeconds = 1;
+            return answer;
+        }
+        if (random.nextDouble() < config.getErrorRate()) {
+            injectedErrors.incrementAndGet();
+            return Answer.error(500, 500, "Internal error");
+        }
+
+        String endpoint = exchange.getRequestURI().getPath().substring(PREFIX.length());
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        switch (endpoint) {
+            case "run-task":
+                return "POST".equals(method) ? runTask(body) : Answer.error(405, 405, "Method not allowed");
+            case "stop-task":
+                return "PUT".equals(method) ? stopTask(query) : Answer.error(405, 405, "Method not allowed");
+            case "resume-task":
+                return "PUT".equals(method) ? resumeTask(query) : Answer.error(405, 405, "Method not allowed");
+            case "get-task":
+                return getTask(query, false);
+            case "get-task-status":
+                return getTask(query, true);
+            case "list-tasks":
+                return listTasks(query);
+            case "list-workflows":
+                return listWorkflows(query);
+            case "get-workflow":
+                return getWorkflow(query);
+            default:
+                return Answer.error(404, 404, "Not found");
+        }
+    }
+
+    private Answer runTask(byte[] body) throws IOException {
+        JsonNode request = objectMapper.readTree(body);
+        long workflowId = request == null ? 0 : request.path("workflow_id").asLong();
+        if (!workflows.containsKey(workflowId)) {
+            return Answer.error(400, 400, "Workflow is not exist.");
+        }
+        if (inProgress.incrementAndGet() > config.getMaxRunningTasks()) {
+            inProgress.decrementAndGet();
+            return Answer.error(400, RUNNING_TASKS_EXCEEDED, "Running tasks number exceeds.");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SimulatedTask task = new SimulatedTask();
+        task.id = nextId.incrementAndGet();
+        task.workflowId = workflowId;
+        task.profileId = request.path("profile_id").asText(null);
+        if (task.profileId == null) {
+            task.profileId = String.valueOf(nextId.incrementAndGet());
+        }
+        task.callbackUrl = request.path("callback_url").asText(null);
+        task.statusCallbackUrl = request.path("status_change_callback_url").asText(null);
+        task.inputParameters = request.get("input_parameters");
+        task.createdAt = timestamp(System.currentTimeMillis());
+        task.state = TaskState.CREATED;
+        task.totalSteps = config.getMinSteps() + random.nextInt(Math.max(1, config.getMaxSteps() - config.getMinSteps() + 1));
+        task.fails = random.nextDouble() < config.getTaskFailureRate();
+        task.pauseAt = random.nextDouble() < config.getTaskPauseRate() ? Math.max(1, task.totalSteps / 2) : -1;
+        tasks.put(task.id, task);
+        scheduleStep(task);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", String.valueOf(task.id));
+        result.put("profileId", task.profileId);
+        return Answer.ok(result);
+    }
+
+    private Answer stopTask(Map<String, String> query) {
+        SimulatedTask task = findTask(query);
+        if (task == null) {
+            return taskNotExist();
+        }
+        synchronized (task) {
+            if (task.state.isTerminal()) {
+                return Answer.error(400, 400, "Task is already " + task.state.getValue() + ".");
+            }
+            changeState(task, TaskState.CANCELED);
+        }
+        return Answer.ok(null);
+    }
+
+    private Answer resumeTask(Map<String, String> query) {
+        SimulatedTask task = findTask(query);
+        if (task == null) {
+            return taskNotExist();
+        }
+        synchronized (task) {
+            if (task.state != TaskState.PAUSED) {
+                return Answer.error(400, 400, "Task is not paused.");
+            }
+            changeState(task, TaskState.RUNNING);
+        }
+        scheduleStep(task);
+        return Answer.ok(null);
+    }
+
+    private Answer getTask(Map<String, String> query, boolean statusOnly) {
+        SimulatedTask task = findTask(query);
+        if (task == null) {
+            return taskNotExist();
+        }
+        synchronized (task) {
+            if (statusOnly) {
+                TaskStatus status = new TaskStatus();
+                status.setStatus(task.state);
+                return Answer.ok(status);
+            }
+            return Answer.ok(task.toTask());
+        }
+    }
+
+    private Answer listTasks(Map<String, String> query) {
+        int page = parseInt(query.get("page"), 1);
+        int limit = parseInt(query.get("limit"), 10);
+        if (page < 1 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Answer.error(400, 400, "Invalid page or limit.");
+        }
+        long workflowId = parseLong(query.get("workflow_id"), 0);
+        List<Task> items = new ArrayList<>(Math.min(limit, 64));
+        long count = 0;
+        long from = (long) (page - 1) * limit;
+        // newest first, the map is in descending ID order
+        for (SimulatedTask task : tasks.values()) {
+            if (workflowId != 0 && task.workflowId != workflowId) {
+                continue;
+            }
+            if (count >= from && items.size() < limit) {
+                synchronized (task) {
+                    items.add(task.toListItem());
+                }
+            }
+            count++;
+        }
+        return Answer.ok(page(page, limit, items, count));
+    }
+
+    private Answer listWorkflows(Map<String, String> query) {
+        int page = parseInt(query.get("page"), 1);
+        int limit = parseInt(query.get("limit"), 10);
+        if (page < 1 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Answer.error(400, 400, "Invalid page or limit.");
+        }
+        List<Workflow> all = new ArrayList<>(workflows.values());
+        int from = (int) Math.min(all.size(), (long) (page - 1) * limit);
+        List<Workflow> items = all.subList(from, Math.min(all.size(), from + limit));
+        return Answer.ok(page(page, limit, items, all.size()));
+    }
+
+    private Answer getWorkflow(Map<String, String> query) {
+        Workflow workflow = workflows.get(parseLong(query.get("workflow_id"), 0));
+        return workflow == null ? Answer.error(400, 400, "Workflow is not exist.") : Answer.ok(workflow);
+    }
+
+    private void scheduleStep(SimulatedTask task) {
+        scheduler.schedule(() -> step(task), config.getStepDuration().sample(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Advance a task by one step of its life cycle.
+     */
+    private void step(SimulatedTask task) {
+        synchronized (task) {
+            if (task.state == TaskState.CREATED) {
+                changeState(task, TaskState.RUNNING);
+            } else if (task.state == TaskState.RUNNING) {
+                task.addStep();
+                if (task.steps.size() == task.pauseAt) {
+                    task.pauseAt = -1;
+                    changeState(task, TaskState.PAUSED);
+                    return;
+                }
+                if (task.steps.size() >= task.totalSteps) {
+                    changeState(task, task.fails ? TaskState.FAILED : TaskState.FINISHED);
+                    return;
+                }
+            } else {
+                // paused or ended meanwhile
+                return;
+            }
+        }
+        scheduleStep(task);
+    }
+
+    /**
+     * Must be called while holding the task lock.
+     */
+    private void changeState(SimulatedTask task, TaskState state) {
+        task.state = state;
+        if (state.isTerminal()) {
+            inProgress.decrementAndGet();
+            task.finishedAt = timestamp(System.currentTimeMillis());
+            if (state == TaskState.FAILED) {
+                TaskFailureInfo failure = new TaskFailureInfo();
+                failure.setCode(500);
+                failure.setMessage("Simulated failure");
+                task.failureInfo = failure;
+            }
+        }
+        Task snapshot = task.toTask();
+        if (task.statusCallbackUrl != null) {
+            postCallback(task.statusCallbackUrl, snapshot);
+        }
+        if (state.isTerminal() && task.callbackUrl != null) {
+            postCallback(task.callbackUrl, snapshot);
+        }
+    }
+
+    private void postCallback(String url, Task task) {
+        callbackPool.execute(() -> {
+            try {
+                callbackSender.send(url, task);
+                callbacks.incrementAndGet();
+            } catch (IOException e) {
+                // an unreachable receiver loses the callback, as with the real API
+            }
+        });
+    }
+
+    private SimulatedTask findTask(Map<String, String> query) {
+        return tasks.get(parseLong(query.get("task_id"), 0));
+    }
+
+    private static Answer taskNotExist() {
+        return Answer.error(400, TASK_NOT_EXIST, "Task is not exist.");
+    }
+
+    private static <T> Page<T> page(int page, int limit, List<T> items, long totalCount) {
+        Page<T> result = new Page<>();
+        result.setPage(page);
+        result.setLimit(limit);
+        result.setItems(items);
+        result.setTotal_count(totalCount);
+        result.setTotal_pages((int) ((totalCount + limit - 1) / limit));
+        return result;
+    }
+
+    private static void send(HttpExchange exchange, Answer answer) {
+        try {
+            byte[] payload = answer.body == null ? new byte[0] : objectMapper.writeValueAsBytes(answer.body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (answer.retryAfterSeconds > 0) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(answer.retryAfterSeconds));
+            }
+            exchange.sendResponseHeaders(answer.status, payload.length == 0 ? -1 : payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> values = new HashMap<>();
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                values.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return values;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String timestamp(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Run the simulator standalone: ApiSimulator [port]
+     */
+    public static void main(String[] args) throws IOException {
+        useNoDelay();
+        SimulatorConfig config = new SimulatorConfig();
+        if (args.length > 0) {
+            config.setPort(Integer.parseInt(args[0]));
+        }
+        ApiSimulator simulator = new ApiSimulator(config);
+        simulator.start();
+        System.out.println("API simulator listening on " + simulator.getBaseUrl());
+        System.out.println("Workflow IDs: " + simulator.getWorkflowIds());
+        // the server threads are daemons, keep the JVM alive until interrupted
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            simulator.close();
+        }
+    }
+
+    private static class Answer {
+        final int status;
+        final Object body;
+        int retryAfterSeconds;
+
+        Answer(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Answer ok(Object body) {
+            return new Answer(200, body);
+        }
+
+        static Answer error(int status, int code, String message) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            long now = System.currentTimeMillis();
+            error.put("code", code);
+            error.put("msg", message);
+            error.put("data", null);
+            error.put("ts", now);
+            error.put("time", timestamp(now));
+            error.put("traceId", Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            return new Answer(status, error);
+        }
+    }
+
+    /**
+     * Server-side state of a task, guarded by its own lock.
+     */
+    private static class SimulatedTask {
+        long id;
+        long workflowId;
+        String profileId;
+        String callbackUrl;
+        String statusCallbackUrl;
+        JsonNode inputParameters;
+        String createdAt;
+        String finishedAt;
+        TaskState state;
+        TaskFailureInfo failureInfo;
+        final List<Step> steps = new ArrayList<>();
+        int totalSteps;
+        int pauseAt;
+        boolean fails;
+
+        void addStep() {
+            Step step = new Step();
+            step.setId(id * 100 + steps.size() + 1);
+            step.setStep(steps.size() + 1);
+            step.setStatus("finished");
+            step.setEvaluation_previous_goal(steps.isEmpty() ? "Start" : "Success - the previous goal was reached.");
+            step.setStep_goal("Simulated step " + (steps.size() + 1) + " of " + totalSteps);
+            step.setScreenshots_url("https://example.com/screenshots/" + id + "/" + (steps.size() + 1) + ".png");
+            steps.add(step);
+        }
+
+        /**
+         * The get-task answer.
+         */
+        Task toTask() {
+            Task task = toListItem();
+            task.setSteps(new ArrayList<>(steps));
+            if (state == TaskState.FINISHED) {
+                TaskOutput output = new TaskOutput();
+                output.setString("[{\"task\":\"" + id + "\",\"result\":\"simulated\"}]");
+                output.setFiles(Collections.<String>emptyList());
+                task.setOutput(output);
+            }
+            return task;
+        }
+
+        /**
+         * The list-tasks item, which carries no steps.
+         */
+        Task toListItem() {
+            Task task = new Task();
+            task.setId(id);
+            task.setWorkflow_id(workflowId);
+            task.setStatus(state);
+            task.setProfile_id(profileId);
+            task.setCreated_at(createdAt);
+            task.setFinished_at(finishedAt);
+            task.setTask_failure_info(failureInfo);
+            task.setInput_parameters(inputParameters);
+            return task;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.browseract.workflow.demo.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal service time, described by its median and 99th percentile as latency is usually reported.
+ * A log-normal has the long right tail of real server latency: most calls close to the median, a few far above.
+ */
+public class LatencyDistribution {
+
+    // 99th percentile of the standard normal distribution
+    private static final double Z99 = 2.326;
+
+    private final double median;
+    private final double sigma;
+
+    public LatencyDistribution(long medianMillis, long p99Millis) {
+        if (medianMillis < 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("expected 0 <= median <= p99: " + medianMillis + ", " + p99Millis);
+        }
+        this.median = medianMillis;
+        this.sigma = medianMillis == 0 ? 0 : Math.log((double) p99Millis / medianMillis) / Z99;
+    }
+
+    /**
+     * A fixed latency.
+     */
+    public static LatencyDistribution constant(long millis) {
+        return new LatencyDistribution(millis, millis);
+    }
+
+    public long sample() {
+        return Math.round(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.browseract.workflow.demo.simulator;
+
+/**
+ * Settings of a {@link LoadGenerator}. The shares of the operations are relative weights.
+ */
+public class LoadConfig {
+
+    /**
+     * Workflow the run-task calls start.
+     */
+    private long workflowId;
+
+    /**
+     * Calls started per second, whatever the latency of the previous ones.
+     */
+    private int targetRps = 100;
+
+    private int durationSeconds = 30;
+
+    private double runTaskShare = 0.1;
+
+    private double getTaskStatusShare = 0.6;
+
+    private double getTaskShare = 0.25;
+
+    private double listTasksShare = 0.05;
+
+    public LoadConfig() {
+    }
+
+    public LoadConfig(long workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    // Getters and Setters
+    public long getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(long workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    public int getTargetRps() {
+        return targetRps;
+    }
+
+    public void setTargetRps(int targetRps) {
+        this.targetRps = targetRps;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public double getRunTaskShare() {
+        return runTaskShare;
+    }
+
+    public void setRunTaskShare(double runTaskShare) {
+        this.runTaskShare = runTaskShare;
+    }
+
+    public double getGetTaskStatusShare() {
+        return getTaskStatusShare;
+    }
+
+    public void setGetTaskStatusShare(double getTaskStatusShare) {
+        this.getTaskStatusShare = getTaskStatusShare;
+    }
+
+    public double getGetTaskShare() {
+        return getTaskShare;
+    }
+
+    public void setGetTaskShare(double getTaskShare) {
+        this.getTaskShare = getTaskShare;
+    }
+
+    public double getListTasksShare() {
+        return listTasksShare;
+    }
+
+    public void setListTasksShare(double listTasksShare) {
+        this.listTasksShare = listTasksShare;
+    }
+}
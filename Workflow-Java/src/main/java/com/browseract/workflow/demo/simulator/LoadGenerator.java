@@ -0,0 +1,221 @@
+package com.browseract.workflow.demo.simulator;
+
+import com.browseract.workflow.demo.RunTask;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.client.WorkflowClientConfig;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link WorkflowClient} at a fixed rate of calls and reports throughput and latency percentiles.
+ * <p>
+ * The load is open: calls start on schedule whether or not the previous ones have answered, as independent users
+ * would, and latency is counted from the scheduled start. The calls mix run-task, get-task-status, get-task and
+ * list-tasks in the configured shares; reads target tasks started earlier in the run.
+ * <pre>
+ * LoadReport report = new LoadGenerator(client, new LoadConfig(workflowId)).run();
+ * System.out.println(report);
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final int KNOWN_TASKS = 1024;
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    private enum Operation {
+        RUN_TASK("run-task"),
+        GET_TASK_STATUS("get-task-status"),
+        GET_TASK("get-task"),
+        LIST_TASKS("list-tasks");
+
+        final String name;
+
+        Operation(String name) {
+            this.name = name;
+        }
+    }
+
+    private final WorkflowClient client;
+    private final LoadConfig config;
+    private final AtomicLongArray knownTasks = new AtomicLongArray(KNOWN_TASKS);
+    private final AtomicInteger knownCount = new AtomicInteger();
+
+    public LoadGenerator(WorkflowClient client, LoadConfig config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    /**
+     * Send the load and wait for the answers.
+     */
+    public LoadReport run() throws InterruptedException {
+        int total = config.getTargetRps() * config.getDurationSeconds();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, config.getTargetRps());
+        Recorder[] recorders = new Recorder[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            recorders[operation.ordinal()] = new Recorder(total);
+        }
+        AtomicInteger outstanding = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Operation operation = pick();
+            Recorder recorder = recorders[operation.ordinal()];
+            outstanding.incrementAndGet();
+            send(operation).whenComplete((value, error) -> {
+                recorder.record(scheduled, error);
+                outstanding.decrementAndGet();
+            });
+        }
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (outstanding.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, LoadReport.OperationStats> stats = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation.name, recorders[operation.ordinal()].toStats());
+        }
+        return new LoadReport(durationMillis, stats);
+    }
+
+    private Operation pick() {
+        double total = config.getRunTaskShare() + config.getGetTaskStatusShare() + config.getGetTaskShare()
+                + config.getListTasksShare();
+        double draw = ThreadLocalRandom.current().nextDouble() * total;
+        Operation operation;
+        if ((draw -= config.getRunTaskShare()) < 0) {
+            operation = Operation.RUN_TASK;
+        } else if ((draw -= config.getGetTaskStatusShare()) < 0) {
+            operation = Operation.GET_TASK_STATUS;
+        } else if (draw - config.getGetTaskShare() < 0) {
+            operation = Operation.GET_TASK;
+        } else {
+            operation = Operation.LIST_TASKS;
+        }
+        if (knownCount.get() == 0 && (operation == Operation.GET_TASK_STATUS || operation == Operation.GET_TASK)) {
+            // no task to read yet
+            return Operation.RUN_TASK;
+        }
+        return operation;
+    }
+
+    private CompletableFuture<?> send(Operation operation) {
+        switch (operation) {
+            case RUN_TASK:
+                RunTask.RunTaskRequest request = new RunTask.RunTaskRequest();
+                request.setWorkflow_id(config.getWorkflowId());
+                request.setInput_parameters(Collections.singletonList(new RunTask.InputParameter("KeyWord", "load test")));
+                return client.runTask(request).thenAccept(result -> {
+                    int index = knownCount.getAndIncrement();
+                    knownTasks.set(index % KNOWN_TASKS, result.getId());
+                });
+            case GET_TASK_STATUS:
+                return client.getTaskStatus(randomKnownTask());
+            case GET_TASK:
+                return client.getTask(randomKnownTask());
+            default:
+                return client.listTasks(1, 20);
+        }
+    }
+
+    private long randomKnownTask() {
+        int known = Math.min(knownCount.get(), KNOWN_TASKS);
+        return knownTasks.get(ThreadLocalRandom.current().nextInt(known));
+    }
+
+    /**
+     * Collects the outcomes of one operation. Latencies go to a preallocated array, one slot per call.
+     */
+    private static class Recorder {
+        private final long[] latencies;
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        Recorder(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        void record(long scheduledNanos, Throwable error) {
+            if (error != null) {
+                failed.increment();
+                WorkflowApiException apiError = WorkflowApiException.from(error);
+                if (apiError != null && apiError.isThrottled()) {
+                    throttled.increment();
+                }
+                return;
+            }
+            succeeded.increment();
+            int index = recorded.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledNanos);
+            }
+        }
+
+        LoadReport.OperationStats toStats() {
+            long[] values = new long[Math.min(recorded.get(), latencies.length)];
+            System.arraycopy(latencies, 0, values, 0, values.length);
+            return new LoadReport.OperationStats(succeeded.sum(), failed.sum(), throttled.sum(), values);
+        }
+    }
+
+    /**
+     * Run a load test: LoadGenerator [rps] [seconds] [baseUrl apiKey workflowId].
+     * Without a base URL, the load targets an in-process {@link ApiSimulator}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rps = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        ApiSimulator simulator = null;
+        WorkflowClientConfig clientConfig;
+        long workflowId;
+        if (args.length > 4) {
+            clientConfig = new WorkflowClientConfig(args[3]);
+            clientConfig.setBaseUrl(args[2]);
+            workflowId = Long.parseLong(args[4]);
+        } else {
+            ApiSimulator.useNoDelay();
+            SimulatorConfig simulatorConfig = new SimulatorConfig();
+            simulatorConfig.setPort(0);
+            simulatorConfig.setMaxRunningTasks(Integer.MAX_VALUE);
+            simulator = new ApiSimulator(simulatorConfig);
+            simulator.start();
+            clientConfig = new WorkflowClientConfig("simulated-key");
+            clientConfig.setBaseUrl(simulator.getBaseUrl());
+            workflowId = simulator.getWorkflowIds().get(0);
+        }
+        LoadConfig config = new LoadConfig(workflowId);
+        config.setTargetRps(rps);
+        config.setDurationSeconds(seconds);
+        try {
+            System.out.println(new LoadGenerator(new WorkflowClient(clientConfig), config).run());
+        } finally {
+            if (simulator != null) {
+                simulator.close();
+            }
+        }
+        System.exit(0);
+    }
+}
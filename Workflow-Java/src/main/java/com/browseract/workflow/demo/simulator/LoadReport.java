@@ -0,0 +1,107 @@
+package com.browseract.workflow.demo.simulator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link LoadGenerator} run: throughput and latency percentiles per operation.
+ * Latency is measured from the time each call was scheduled to start, so a client falling behind the target rate
+ * shows in the percentiles instead of silently sending fewer calls.
+ */
+public class LoadReport {
+
+    private final long durationMillis;
+    private final Map<String, OperationStats> operations;
+
+    LoadReport(long durationMillis, Map<String, OperationStats> operations) {
+        this.durationMillis = durationMillis;
+        this.operations = Collections.unmodifiableMap(new LinkedHashMap<>(operations));
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Returns the statistics per operation, e.g. "run-task".
+     */
+    public Map<String, OperationStats> getOperations() {
+        return operations;
+    }
+
+    public long getSucceeded() {
+        long count = 0;
+        for (OperationStats stats : operations.values()) {
+            count += stats.getSucceeded();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of successful calls per second.
+     */
+    public double getThroughput() {
+        return durationMillis == 0 ? 0 : getSucceeded() * 1000.0 / durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("duration=%dms throughput=%.1f/s%n", durationMillis, getThroughput()));
+        text.append(String.format("%-16s %8s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "ok", "failed", "429", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            OperationStats stats = entry.getValue();
+            text.append(String.format("%-16s %8d %8d %8d %8d %8d %8d %8d%n", entry.getKey(), stats.getSucceeded(),
+                    stats.getFailed(), stats.getThrottled(), stats.getPercentile(0.5), stats.getPercentile(0.9),
+                    stats.getPercentile(0.99), stats.getMax()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Counts and latencies of one operation, latencies in milliseconds.
+     */
+    public static class OperationStats {
+        private final long succeeded;
+        private final long failed;
+        private final long throttled;
+        private final long[] sortedLatencies;
+
+        OperationStats(long succeeded, long failed, long throttled, long[] latencies) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.throttled = throttled;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * Returns the number of failed calls, throttled ones included.
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getThrottled() {
+            return throttled;
+        }
+
+        public long getPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            return sortedLatencies[Math.min(sortedLatencies.length - 1, (int) (percentile * sortedLatencies.length))];
+        }
+
+        public long getMax() {
+            return sortedLatencies.length == 0 ? 0 : sortedLatencies[sortedLatencies.length - 1];
+        }
+    }
+}
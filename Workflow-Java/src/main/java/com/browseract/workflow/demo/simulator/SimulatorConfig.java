@@ -0,0 +1,162 @@
+package com.browseract.workflow.demo.simulator;
+
+/**
+ * Settings of an {@link ApiSimulator}.
+ */
+public class SimulatorConfig {
+
+    /**
+     * Port to listen on, 0 picks a free one.
+     */
+    private int port = 8090;
+
+    /**
+     * Threads answering the calls. Latency is simulated by delaying the answer, not by holding a thread,
+     * so a few threads serve thousands of concurrent calls.
+     */
+    private int threads = 4;
+
+    /**
+     * Service time of each call.
+     */
+    private LatencyDistribution latency = new LatencyDistribution(40, 400);
+
+    /**
+     * Share of the calls answered with a 500 error.
+     */
+    private double errorRate = 0.001;
+
+    /**
+     * Share of the calls answered with 429 and a Retry-After header.
+     */
+    private double throttleRate = 0;
+
+    /**
+     * Number of tasks that may be created, running or paused at once; run-task answers 10118 above it.
+     */
+    private int maxRunningTasks = 100;
+
+    /**
+     * Number of workflows the account owns.
+     */
+    private int workflowCount = 3;
+
+    /**
+     * Time between two steps of a running task.
+     */
+    private LatencyDistribution stepDuration = new LatencyDistribution(2_000, 8_000);
+
+    /**
+     * Bounds of the number of steps of a task, drawn uniformly.
+     */
+    private int minSteps = 3;
+
+    private int maxSteps = 15;
+
+    /**
+     * Share of the tasks that end failed instead of finished.
+     */
+    private double taskFailureRate = 0.05;
+
+    /**
+     * Share of the tasks that pause halfway and wait for resume-task.
+     */
+    private double taskPauseRate = 0;
+
+    // Getters and Setters
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getThrottleRate() {
+        return throttleRate;
+    }
+
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    public int getMaxRunningTasks() {
+        return maxRunningTasks;
+    }
+
+    public void setMaxRunningTasks(int maxRunningTasks) {
+        this.maxRunningTasks = maxRunningTasks;
+    }
+
+    public int getWorkflowCount() {
+        return workflowCount;
+    }
+
+    public void setWorkflowCount(int workflowCount) {
+        this.workflowCount = workflowCount;
+    }
+
+    public LatencyDistribution getStepDuration() {
+        return stepDuration;
+    }
+
+    public void setStepDuration(LatencyDistribution stepDuration) {
+        this.stepDuration = stepDuration;
+    }
+
+    public int getMinSteps() {
+        return minSteps;
+    }
+
+    public void setMinSteps(int minSteps) {
+        this.minSteps = minSteps;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    public double getTaskFailureRate() {
+        return taskFailureRate;
+    }
+
+    public void setTaskFailureRate(double taskFailureRate) {
+        this.taskFailureRate = taskFailureRate;
+    }
+
+    public double getTaskPauseRate() {
+        return taskPauseRate;
+    }
+
+    public void setTaskPauseRate(double taskPauseRate) {
+        this.taskPauseRate = taskPauseRate;
+    }
+}
@@ -0,0 +1,59 @@
+package com.browseract.workflow.demo.sync;
+
+/**
+ * What one {@link TaskHistorySync#sync()} run did.
+ */
+public class SyncReport {
+
+    private final int listed;
+    private final int stored;
+    private final int refreshed;
+    private final int failed;
+    private final long durationMillis;
+
+    public SyncReport(int listed, int stored, int refreshed, int failed, long durationMillis) {
+        this.listed = listed;
+        this.stored = stored;
+        this.refreshed = refreshed;
+        this.failed = failed;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Returns the number of tasks read from list-tasks, down to the high-water mark.
+     */
+    public int getListed() {
+        return listed;
+    }
+
+    /**
+     * Returns the number of new or changed tasks appended to the store.
+     */
+    public int getStored() {
+        return stored;
+    }
+
+    /**
+     * Returns the number of stored non-terminal tasks fetched again with get-task.
+     */
+    public int getRefreshed() {
+        return refreshed;
+    }
+
+    /**
+     * Returns the number of tasks whose get-task call failed, they are fetched again by the next sync.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "listed=" + listed + " stored=" + stored + " refreshed=" + refreshed + " failed=" + failed
+                + " duration=" + durationMillis + "ms";
+    }
+}
@@ -0,0 +1,37 @@
+package com.browseract.workflow.demo.sync;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * High-water mark of a {@link TaskHistorySync}, persisted next to the {@link TaskStore}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SyncState {
+
+    /**
+     * created_at of the newest task seen by the last sync, tasks created before it are not listed again.
+     */
+    private String high_water_created_at;
+
+    /**
+     * End of the last successful sync, in epoch milliseconds.
+     */
+    private long last_sync_at;
+
+    // Getters and Setters
+    public String getHigh_water_created_at() {
+        return high_water_created_at;
+    }
+
+    public void setHigh_water_created_at(String high_water_created_at) {
+        this.high_water_created_at = high_water_created_at;
+    }
+
+    public long getLast_sync_at() {
+        return last_sync_at;
+    }
+
+    public void setLast_sync_at(long last_sync_at) {
+        this.last_sync_at = last_sync_at;
+    }
+}
@@ -0,0 +1,199 @@
+package com.browseract.workflow.demo.sync;
+
+import com.browseract.workflow.demo.client.Paginator;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.tracking.TaskPoller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Incrementally copies the task history of the account into a {@link TaskStore}.
+ * <p>
+ * Each run walks list-tasks from the newest task down to the high-water mark left by the previous run
+ * (the created_at of the newest task it saw), then fetches again only the stored tasks that were not yet
+ * terminal. Terminal tasks never change, so after the first full copy a run costs a few pages and one
+ * get-task per task still in progress. A listed task whose get-task failed keeps the mark at its created_at,
+ * so the next run lists and fetches it again.
+ * <pre>
+ * try (TaskStore store = new TaskStore(Paths.get("task-history"))) {
+ *     System.out.println(new TaskHistorySync(client, store).sync());
+ * }
+ * </pre>
+ */
+public class TaskHistorySync {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Number of get-task calls sent before their answers are written, which bounds the memory of a run.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private final WorkflowClient client;
+    private final TaskStore store;
+    private final Long workflowId;
+    private boolean fetchDetails = true;
+
+    /**
+     * Sync the tasks of all workflows.
+     */
+    public TaskHistorySync(WorkflowClient client, TaskStore store) {
+        this(client, store, null);
+    }
+
+    /**
+     * Sync the tasks of one workflow, or of all workflows when workflowId is null.
+     */
+    public TaskHistorySync(WorkflowClient client, TaskStore store, Long workflowId) {
+        this.client = client;
+        this.store = store;
+        this.workflowId = workflowId;
+    }
+
+    /**
+     * Whether terminal tasks are fetched with get-task to store their steps, which list-tasks does not return.
+     * Enabled by default.
+     */
+    public void setFetchDetails(boolean fetchDetails) {
+        this.fetchDetails = fetchDetails;
+    }
+
+    public SyncReport sync() throws IOException {
+        long start = System.currentTimeMillis();
+        SyncState state = loadState();
+        String highWater = state.getHigh_water_created_at();
+        String newest = highWater;
+
+        Set<Long> listedIds = new HashSet<>();
+        List<Fetch> details = new ArrayList<>();
+        Counts counts = new Counts();
+
+        Paginator<Task> tasks = workflowId == null ? client.listAllTasks() : client.listAllTasks(workflowId);
+        for (Task task : tasks) {
+            String createdAt = task.getCreated_at();
+            if (highWater != null && createdAt != null && createdAt.compareTo(highWater) < 0) {
+                // tasks are listed newest first, everything below was seen by a previous run
+                break;
+            }
+            listedIds.add(task.getId());
+            if (createdAt != null && (newest == null || createdAt.compareTo(newest) > 0)) {
+                newest = createdAt;
+            }
+            TaskState known = store.getState(task.getId());
+            if (known != null && known.isTerminal()) {
+                continue;
+            }
+            if (fetchDetails && task.getStatus() != null && task.getStatus().isTerminal()) {
+                details.add(new Fetch(createdAt, client.getTask(task.getId())));
+                if (details.size() >= BATCH_SIZE) {
+                    drain(details, counts);
+                }
+            } else {
+                store.append(task);
+                counts.stored++;
+            }
+        }
+
+        // stored tasks still in progress that are older than the listed window
+        int refreshed = 0;
+        for (Long taskId : store.getNonTerminalTaskIds()) {
+            if (!listedIds.contains(taskId)) {
+                // still stored as in progress, so fetched again by the next run if this call fails
+                details.add(new Fetch(null, client.getTask(taskId)));
+                refreshed++;
+                if (details.size() >= BATCH_SIZE) {
+                    drain(details, counts);
+                }
+            }
+        }
+        drain(details, counts);
+        store.flush();
+
+        if (counts.oldestFailed != null && (newest == null || counts.oldestFailed.compareTo(newest) < 0)) {
+            // not past a listed task which is not stored yet
+            newest = counts.oldestFailed;
+        }
+        state.setHigh_water_created_at(newest);
+        state.setLast_sync_at(System.currentTimeMillis());
+        saveState(state);
+        return new SyncReport(listedIds.size(), counts.stored, refreshed, counts.failed,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Wait for the pending get-task calls and store their answers.
+     */
+    private void drain(List<Fetch> details, Counts counts) throws IOException {
+        for (Fetch fetch : details) {
+            Task task;
+            try {
+                task = fetch.future.join();
+            } catch (CompletionException e) {
+                WorkflowApiException apiError = WorkflowApiException.from(e);
+                if (apiError == null || apiError.getErrorCode() != TaskPoller.TASK_NOT_EXIST) {
+                    counts.failed++;
+                    if (fetch.createdAt != null
+                            && (counts.oldestFailed == null || fetch.createdAt.compareTo(counts.oldestFailed) < 0)) {
+                        counts.oldestFailed = fetch.createdAt;
+                    }
+                }
+                continue;
+            }
+            store.append(task);
+            counts.stored++;
+        }
+        details.clear();
+    }
+
+    private Path stateFile() {
+        return store.getDirectory().resolve(workflowId == null ? "sync-state.json" : "sync-state-" + workflowId + ".json");
+    }
+
+    private SyncState loadState() throws IOException {
+        Path file = stateFile();
+        if (!Files.exists(file)) {
+            return new SyncState();
+        }
+        return objectMapper.readValue(file.toFile(), SyncState.class);
+    }
+
+    private void saveState(SyncState state) throws IOException {
+        Path file = stateFile();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), state);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A pending get-task call, with the created_at of the task if it was listed by this run.
+     */
+    private static final class Fetch {
+        final String createdAt;
+        final CompletableFuture<Task> future;
+
+        Fetch(String createdAt, CompletableFuture<Task> future) {
+            this.createdAt = createdAt;
+            this.future = future;
+        }
+    }
+
+    private static final class Counts {
+        int stored;
+        int failed;
+        // created_at of the oldest listed task whose get-task failed
+        String oldestFailed;
+    }
+}
@@ -0,0 +1,383 @@
+package com.browseract.workflow.demo.sync;
+
+import com.browseract.workflow.demo.model.Task;
+import com.browseract.workflow.demo.model.TaskState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only local store of tasks, readable without calling the API.
+ * <p>
+ * A directory holds two files:
+ * <ul>
+ * <li>{@code tasks.ndjson}: one get-task JSON document per line, appended each time a task is stored.
+ * The last line of a task is its current version.</li>
+ * <li>{@code tasks.idx}: one fixed-size binary record per line (task id, workflow id, offset, length, state),
+ * loaded at open to index the tasks by id and by workflow without parsing the JSON.</li>
+ * </ul>
+ * The index is rebuilt from the NDJSON file when it lags behind it, e.g. after a crash between the two writes,
+ * and a torn last line is truncated. {@link #compact()} rewrites both files with the current versions only; it
+ * removes the old index before replacing the data file, so a crash in between leaves an index to rebuild rather
+ * than one pointing into the wrong file.
+ * <p>
+ * The store is not thread safe.
+ */
+public class TaskStore implements Closeable {
+
+    static final String DATA_FILE = "tasks.ndjson";
+    static final String INDEX_FILE = "tasks.idx";
+
+    // task id, workflow id, offset, length, state
+    private static final int RECORD_SIZE = 8 + 8 + 8 + 4 + 1;
+    private static final TaskState[] STATES = TaskState.values();
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader TASK_READER = objectMapper.readerFor(Task.class);
+    private static final ObjectWriter TASK_WRITER = objectMapper.writerFor(Task.class);
+
+    private final Path directory;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<Long>> byWorkflow = new HashMap<>();
+    private final ByteBuffer pendingIndex = ByteBuffer.allocate(RECORD_SIZE * 1024);
+
+    private FileChannel data;
+    private FileChannel index;
+    private long dataSize;
+
+    public TaskStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    /**
+     * Store the current version of a task.
+     */
+    public void append(Task task) throws IOException {
+        byte[] json = TASK_WRITER.writeValueAsBytes(task);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1);
+        line.put(json).put((byte) '\n').flip();
+        long offset = dataSize;
+        while (line.hasRemaining()) {
+            data.write(line, dataSize + line.position());
+        }
+        dataSize += json.length + 1;
+
+        Entry entry = new Entry(task.getId(), task.getWorkflow_id(), offset, json.length, task.getStatus());
+        if (pendingIndex.remaining() < RECORD_SIZE) {
+            flushIndex();
+        }
+        entry.writeTo(pendingIndex);
+        put(entry);
+    }
+
+    /**
+     * Returns the current version of a task, or null if it is not stored.
+     */
+    public Task get(long taskId) throws IOException {
+        Entry entry = entries.get(taskId);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer json = ByteBuffer.allocate(entry.length);
+        while (json.hasRemaining()) {
+            if (data.read(json, entry.offset + json.position()) < 0) {
+                throw new EOFException("task " + taskId + " is cut in " + DATA_FILE);
+            }
+        }
+        return TASK_READER.readValue(json.array());
+    }
+
+    /**
+     * Returns the stored state of a task without reading its JSON, or null if it is not stored.
+     */
+    public TaskState getState(long taskId) {
+        Entry entry = entries.get(taskId);
+        return entry == null ? null : entry.state;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean contains(long taskId) {
+        return entries.containsKey(taskId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Set<Long> getTaskIds() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public Set<Long> getTaskIds(long workflowId) {
+        Set<Long> ids = byWorkflow.get(workflowId);
+        return ids == null ? Collections.<Long>emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Returns the IDs of the stored tasks that may still change.
+     */
+    public List<Long> getNonTerminalTaskIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.state == null || !entry.state.isTerminal()) {
+                ids.add(entry.taskId);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Stream the current version of every task, in storage order, reading the NDJSON file sequentially.
+     * Superseded versions are skipped without being decoded.
+     */
+    public Stream<Task> stream() throws IOException {
+        flush();
+        long[] current = new long[entries.size()];
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            current[count++] = entry.offset;
+        }
+        Arrays.sort(current);
+
+        InputStream in = new BufferedInputStream(Channels.newInputStream(data.position(0)), 64 * 1024);
+        Spliterator<Task> tasks = new Spliterators.AbstractSpliterator<Task>(current.length, Spliterator.NONNULL) {
+            private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            private long position;
+            private int next;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Task> action) {
+                try {
+                    while (next < current.length) {
+                        long start = position;
+                        if (!readLine(in, line)) {
+                            return false;
+                        }
+                        position += line.size() + 1;
+                        if (start == current[next]) {
+                            next++;
+                            action.accept(TASK_READER.readValue(line.toByteArray()));
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(tasks, false);
+    }
+
+    /**
+     * Make the appended records durable.
+     */
+    public void flush() throws IOException {
+        flushIndex();
+        data.force(false);
+        index.force(false);
+    }
+
+    /**
+     * Rewrite the store with the current version of each task only.
+     */
+    public void compact() throws IOException {
+        flush();
+        Path compactDir = Files.createTempDirectory(directory, "compact");
+        try (TaskStore compacted = new TaskStore(compactDir);
+             Stream<Task> tasks = stream()) {
+            for (Task task : (Iterable<Task>) tasks::iterator) {
+                compacted.append(task);
+            }
+            compacted.flush();
+        }
+        data.close();
+        index.close();
+        // the old index would point into the new data file, so it goes first: after a crash in between,
+        // open() finds a data file without index and rebuilds it
+        Files.delete(directory.resolve(INDEX_FILE));
+        Files.move(compactDir.resolve(DATA_FILE), directory.resolve(DATA_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(compactDir.resolve(INDEX_FILE), directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(compactDir);
+        entries.clear();
+        byWorkflow.clear();
+        open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        data.close();
+        index.close();
+    }
+
+    private void open() throws IOException {
+        data = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+
+        // load the index, dropping records that point past the data file
+        long indexed = 0;
+        long validIndexSize = 0;
+        long indexSize = index.size() - index.size() % RECORD_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        loading:
+        while (validIndexSize < indexSize) {
+            records.clear();
+            records.limit((int) Math.min(records.capacity(), indexSize - validIndexSize));
+            while (records.hasRemaining()) {
+                index.read(records, validIndexSize + records.position());
+            }
+            records.flip();
+            while (records.remaining() >= RECORD_SIZE) {
+                Entry entry = Entry.readFrom(records);
+                if (entry.offset + entry.length + 1 > dataSize) {
+                    break loading;
+                }
+                put(entry);
+                indexed = entry.offset + entry.length + 1;
+                validIndexSize += RECORD_SIZE;
+            }
+        }
+        index.truncate(validIndexSize);
+        index.position(validIndexSize);
+
+        if (indexed < dataSize) {
+            reindexTail(indexed);
+        }
+        data.position(dataSize);
+    }
+
+    /**
+     * Index the lines appended after the last indexed one, and cut a torn last line.
+     */
+    private void reindexTail(long from) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(data.position(from)), 64 * 1024);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = from;
+        long lastComplete = from;
+        while (readLine(in, line)) {
+            if (position + line.size() + 1 > dataSize) {
+                break;
+            }
+            Task task;
+            try {
+                task = TASK_READER.readValue(line.toByteArray());
+            } catch (IOException e) {
+                break;
+            }
+            Entry entry = new Entry(task.getId(), task.getWorkflow_id(), position, line.size(), task.getStatus());
+            if (pendingIndex.remaining() < RECORD_SIZE) {
+                flushIndex();
+            }
+            entry.writeTo(pendingIndex);
+            put(entry);
+            position += line.size() + 1;
+            lastComplete = position;
+        }
+        if (lastComplete < dataSize) {
+            data.truncate(lastComplete);
+            dataSize = lastComplete;
+        }
+        flushIndex();
+    }
+
+    /**
+     * Read one line without its newline. Returns false at the end of the stream or on a line without newline.
+     */
+    private static boolean readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return true;
+            }
+            line.write(b);
+        }
+        return false;
+    }
+
+    private void flushIndex() throws IOException {
+        pendingIndex.flip();
+        while (pendingIndex.hasRemaining()) {
+            index.write(pendingIndex);
+        }
+        pendingIndex.clear();
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.taskId, entry);
+        if (previous != null && previous.workflowId != entry.workflowId) {
+            Set<Long> ids = byWorkflow.get(previous.workflowId);
+            if (ids != null) {
+                ids.remove(entry.taskId);
+            }
+        }
+        byWorkflow.computeIfAbsent(entry.workflowId, id -> new LinkedHashSet<>()).add(entry.taskId);
+    }
+
+    private static class Entry {
+        final long taskId;
+        final long workflowId;
+        final long offset;
+        final int length;
+        final TaskState state;
+
+        Entry(long taskId, long workflowId, long offset, int length, TaskState state) {
+            this.taskId = taskId;
+            this.workflowId = workflowId;
+            this.offset = offset;
+            this.length = length;
+            this.state = state == null ? TaskState.UNKNOWN : state;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.putLong(taskId).putLong(workflowId).putLong(offset).putInt(length).put((byte) state.ordinal());
+        }
+
+        static Entry readFrom(ByteBuffer buffer) {
+            long taskId = buffer.getLong();
+            long workflowId = buffer.getLong();
+            long offset = buffer.getLong();
+            int length = buffer.getInt();
+            int state = buffer.get() & 0xff;
+            return new Entry(taskId, workflowId, offset, length, state < STATES.length ? STATES[state] : TaskState.UNKNOWN);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.model.Step;
+import com.browseract.workflow.demo.model.TaskFailureInfo;
+import com.browseract.workflow.demo.model.TaskOutput;
+import com.browseract.workflow.demo.model.TaskState;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads a get-task answer as a stream, keeping only what changed since the previous answers of the same task.
+ * <p>
+ * Steps are keyed by ID. A step is settled once it has a status and a later step exists; from then on its
+ * fields are scanned past without being decoded, and it is assumed not to change anymore. So an answer costs
+ * decoding its new steps, its last one and a few small fields, not its whole history.
+ */
+final class TaskDeltaReader {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TaskDeltaReader() {
+    }
+
+    /**
+     * What is known of one task. Only changed by {@link #apply}, with the delta of a complete answer,
+     * so an answer cut short loses no event.
+     */
+    static final class Progress {
+        // sorted IDs of the settled steps: 8 bytes a step, and no boxing on lookup
+        private long[] settled = new long[16];
+        private int settledCount;
+        // steps which may still change, by ID: the last one and those without status
+        private Map<Long, Step> open = new HashMap<>();
+        private TaskState state = TaskState.UNKNOWN;
+        private TaskOutput output;
+
+        TaskState getState() {
+            return state;
+        }
+
+        /**
+         * Record a delta, and return the events it makes: the steps in answer order, then the output, then
+         * the status.
+         */
+        List<TaskEvent> apply(long taskId, Delta delta) {
+            List<TaskEvent> events = new ArrayList<>();
+            Map<Long, Step> stillOpen = new HashMap<>();
+            for (Step step : delta.steps) {
+                Step before = open.get(step.getId());
+                if (before == null) {
+                    events.add(TaskEvent.step(taskId, step, false));
+                } else if (!sameStep(before, step)) {
+                    events.add(TaskEvent.step(taskId, step, true));
+                }
+                if (step.getId() == delta.lastStepId || step.getStatus() == null || step.getStatus().isEmpty()) {
+                    stillOpen.put(step.getId(), step);
+                } else {
+                    settle(step.getId());
+                }
+            }
+            open = stillOpen;
+            if (delta.output != null && !sameOutput(output, delta.output)) {
+                events.add(TaskEvent.output(taskId, delta.output));
+                output = delta.output;
+            }
+            if (delta.state != null && delta.state != state) {
+                events.add(TaskEvent.status(taskId, state, delta.state, delta.failure));
+                state = delta.state;
+            }
+            return events;
+        }
+
+        boolean isSettled(long stepId) {
+            return Arrays.binarySearch(settled, 0, settledCount, stepId) >= 0;
+        }
+
+        private void settle(long stepId) {
+            int index = Arrays.binarySearch(settled, 0, settledCount, stepId);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (settledCount == settled.length) {
+                settled = Arrays.copyOf(settled, settledCount * 2);
+            }
+            // step IDs grow with their position, so this is an append but for out of order answers
+            System.arraycopy(settled, index, settled, index + 1, settledCount - index);
+            settled[index] = stepId;
+            settledCount++;
+        }
+    }
+
+    /**
+     * What one answer holds that is not settled yet.
+     */
+    static final class Delta {
+        final List<Step> steps = new ArrayList<>();
+        int skipped;
+        long lastStepId;
+        TaskState state;
+        TaskOutput output;
+        TaskFailureInfo failure;
+
+        int getDecoded() {
+            return steps.size();
+        }
+
+        int getSkipped() {
+            return skipped;
+        }
+    }
+
+    static Delta read(InputStream body, Progress progress) throws IOException {
+        Delta delta = new Delta();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "a task is a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (name) {
+                    case "status":
+                        delta.state = TaskState.fromValue(parser.getValueAsString());
+                        break;
+                    case "steps":
+                        if (value == JsonToken.START_ARRAY) {
+                            readSteps(parser, progress, delta);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    case "output":
+                        delta.output = parser.readValueAs(TaskOutput.class);
+                        break;
+                    case "task_failure_info":
+                        delta.failure = parser.readValueAs(TaskFailureInfo.class);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return delta;
+    }
+
+    private static void readSteps(JsonParser parser, Progress progress, Delta delta) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            delta.lastStepId = 0;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            Step step = readStep(parser, progress, delta);
+            if (step == null) {
+                delta.skipped++;
+            } else {
+                delta.steps.add(step);
+            }
+        }
+    }
+
+    /**
+     * Decode a step, or skip it and return null if it is settled.
+     */
+    private static Step readStep(JsonParser parser, Progress progress, Delta delta) throws IOException {
+        // created once the step is known not to be settled, which is at its first field with the API
+        Step step = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(name)) {
+                delta.lastStepId = parser.getValueAsLong();
+                if (progress.isSettled(delta.lastStepId)) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        // strings are scanned for their end only, never decoded
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                    return null;
+                }
+            }
+            if (step == null) {
+                step = new Step();
+            }
+            switch (name) {
+                case "id":
+                    step.setId(delta.lastStepId);
+                    break;
+                case "step":
+                    step.setStep(parser.getValueAsInt());
+                    break;
+                case "status":
+                    step.setStatus(parser.getValueAsString());
+                    break;
+                case "evaluation_previous_goal":
+                    step.setEvaluation_previous_goal(parser.getValueAsString());
+                    break;
+                case "step_goal":
+                    step.setStep_goal(parser.getValueAsString());
+                    break;
+                case "screenshots_url":
+                    step.setScreenshots_url(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return step != null ? step : new Step();
+    }
+
+    private static boolean sameStep(Step a, Step b) {
+        return a.getStep() == b.getStep()
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getEvaluation_previous_goal(), b.getEvaluation_previous_goal())
+                && Objects.equals(a.getStep_goal(), b.getStep_goal())
+                && Objects.equals(a.getScreenshots_url(), b.getScreenshots_url());
+    }
+
+    private static boolean sameOutput(TaskOutput a, TaskOutput b) {
+        return a != null && Objects.equals(a.getString(), b.getString()) && Objects.equals(a.getFiles(), b.getFiles());
+    }
+}
@@ -0,0 +1,109 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.model.Step;
+import com.browseract.workflow.demo.model.TaskFailureInfo;
+import com.browseract.workflow.demo.model.TaskOutput;
+import com.browseract.workflow.demo.model.TaskState;
+
+/**
+ * One change of a task seen by a {@link TaskProgressMonitor}.
+ */
+public class TaskEvent {
+
+    public enum Type {
+        /**
+         * A step not seen before, in {@link #getStep()}.
+         */
+        STEP,
+        /**
+         * A step seen before whose content changed, e.g. its screenshot was added, in {@link #getStep()}.
+         */
+        STEP_UPDATED,
+        /**
+         * The output of the task was set or changed, in {@link #getOutput()}.
+         */
+        OUTPUT,
+        /**
+         * The task changed status, from {@link #getPrevious()} to {@link #getState()}.
+         */
+        STATUS
+    }
+
+    private final long taskId;
+    private final Type type;
+    private final Step step;
+    private final TaskOutput output;
+    private final TaskState previous;
+    private final TaskState state;
+    private final TaskFailureInfo failure;
+
+    private TaskEvent(long taskId, Type type, Step step, TaskOutput output, TaskState previous, TaskState state,
+                      TaskFailureInfo failure) {
+        this.taskId = taskId;
+        this.type = type;
+        this.step = step;
+        this.output = output;
+        this.previous = previous;
+        this.state = state;
+        this.failure = failure;
+    }
+
+    static TaskEvent step(long taskId, Step step, boolean updated) {
+        return new TaskEvent(taskId, updated ? Type.STEP_UPDATED : Type.STEP, step, null, null, null, null);
+    }
+
+    static TaskEvent output(long taskId, TaskOutput output) {
+        return new TaskEvent(taskId, Type.OUTPUT, null, output, null, null, null);
+    }
+
+    static TaskEvent status(long taskId, TaskState previous, TaskState state, TaskFailureInfo failure) {
+        return new TaskEvent(taskId, Type.STATUS, null, null, previous, state, failure);
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    public TaskOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns the state before a status change, {@link TaskState#UNKNOWN} for the first one.
+     */
+    public TaskState getPrevious() {
+        return previous;
+    }
+
+    public TaskState getState() {
+        return state;
+    }
+
+    /**
+     * Returns why the task failed, on the status change to failed, or null.
+     */
+    public TaskFailureInfo getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case STEP:
+            case STEP_UPDATED:
+                return taskId + " " + type + " #" + step.getStep() + " " + step.getStep_goal();
+            case OUTPUT:
+                return taskId + " OUTPUT " + output.getString();
+            default:
+                return taskId + " STATUS " + previous + " -> " + state;
+        }
+    }
+}
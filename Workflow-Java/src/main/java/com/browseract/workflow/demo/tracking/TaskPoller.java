@@ -0,0 +1,205 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.TaskState;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the status of many tasks with one scheduler thread and the non-blocking {@link WorkflowClient}.
+ * <p>
+ * Each task has its own poll interval: it starts at {@link TaskPollerConfig#getMinIntervalMillis()} when the
+ * task is tracked or changes status, and grows by {@link TaskPollerConfig#getBackoffFactor()} after each poll
+ * that saw no change, up to {@link TaskPollerConfig#getMaxIntervalMillis()}. Intervals are jittered and the
+ * number of polls per second is capped, so polls are spread evenly over time and the load follows the
+ * number of tasks that change state rather than the number of tasks tracked.
+ * Tasks stop being polled once they reach a terminal state.
+ * <p>
+ * The tasks and their schedule live in a {@link TaskRegistry}, which may be shared: every task registered in it,
+ * e.g. by a {@link com.browseract.workflow.demo.bulk.BulkSubmitter}, is polled, and states recorded in it by
+ * other components, e.g. a {@link com.browseract.workflow.demo.callback.CallbackServer}, reach the listeners.
+ */
+public class TaskPoller implements Closeable {
+
+    /**
+     * Business code returned by the task endpoints for an unknown task ID.
+     */
+    public static final int TASK_NOT_EXIST = 10112;
+
+    private final WorkflowClient client;
+    private final TaskPollerConfig config;
+    private final TaskRegistry registry;
+    private final ScheduledExecutorService scheduler;
+    private final List<TaskStatusListener> listeners = new CopyOnWriteArrayList<>();
+
+    // used by the scheduler thread only
+    private final long[] due;
+    private final double pollsPerTick;
+    private double budget;
+
+    public TaskPoller(WorkflowClient client) {
+        this(client, new TaskPollerConfig());
+    }
+
+    public TaskPoller(WorkflowClient client, TaskPollerConfig config) {
+        this.client = client;
+        this.config = config;
+        this.registry = config.getRegistry() != null ? config.getRegistry() : new TaskRegistry();
+        this.pollsPerTick = Math.max(1.0, config.getMaxPollsPerSecond() * config.getTickMillis() / 1000.0);
+        this.due = new long[(int) Math.ceil(pollsPerTick)];
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, config.getTickMillis(), config.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Listen to the status changes of the registry, whoever observed them, and to the poll errors.
+     */
+    public void addListener(TaskStatusListener listener) {
+        listeners.add(listener);
+        registry.addListener(listener);
+    }
+
+    public void removeListener(TaskStatusListener listener) {
+        listeners.remove(listener);
+        registry.removeListener(listener);
+    }
+
+    public TaskRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Start tracking a task, e.g. right after run-task returned its ID.
+     *
+     * @return a future completed with the terminal state of the task
+     */
+    public CompletableFuture<TaskState> track(long taskId) {
+        return track(taskId, TaskState.UNKNOWN);
+    }
+
+    /**
+     * Start tracking a task whose state is already known, transitions are reported from that state.
+     */
+    public CompletableFuture<TaskState> track(long taskId, TaskState knownState) {
+        return registry.track(taskId, knownState);
+    }
+
+    /**
+     * Stop tracking a task. Its future is left uncompleted.
+     */
+    public boolean untrack(long taskId) {
+        return registry.remove(taskId);
+    }
+
+    /**
+     * Report a state observed elsewhere, e.g. by a status change callback.
+     * Listeners are notified as for a polled change, and the task is polled again soon.
+     */
+    public void update(long taskId, TaskState state) {
+        TaskState previous = registry.update(taskId, state);
+        if (previous != null && !state.isTerminal()) {
+            long interval = config.getMinIntervalMillis();
+            registry.schedule(taskId, System.currentTimeMillis() + jittered(interval), (int) interval);
+        }
+    }
+
+    public boolean isTracked(long taskId) {
+        return registry.contains(taskId);
+    }
+
+    /**
+     * Returns the last known state of a tracked task, or null if it is not tracked.
+     */
+    public TaskState getState(long taskId) {
+        return registry.getState(taskId);
+    }
+
+    public int size() {
+        return registry.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        budget = Math.min(pollsPerTick, budget + pollsPerTick);
+        int count = registry.pollDue(System.currentTimeMillis(), due, (int) budget);
+        budget -= count;
+        for (int i = 0; i < count; i++) {
+            poll(due[i]);
+        }
+    }
+
+    private void poll(long taskId) {
+        client.getTaskStatus(taskId).whenComplete((status, error) -> {
+            if (error != null) {
+                onPollError(taskId, error);
+            } else {
+                observe(taskId, status == null ? null : status.getStatus());
+            }
+        });
+    }
+
+    private void observe(long taskId, TaskState state) {
+        if (state == null) {
+            // an answer without a status, polled again as any state the client does not know
+            state = TaskState.UNKNOWN;
+        }
+        int interval = registry.getInterval(taskId);
+        TaskState previous = registry.completePoll(taskId, state);
+        if (previous == null || state.isTerminal()) {
+            // untracked, finished, or rescheduled by a newer observation while the call was in flight
+            return;
+        }
+        reschedule(taskId, state == previous || state == TaskState.UNKNOWN ? backedOff(interval) : config.getMinIntervalMillis());
+    }
+
+    private void onPollError(long taskId, Throwable error) {
+        for (TaskStatusListener listener : listeners) {
+            try {
+                listener.onError(taskId, error);
+            } catch (RuntimeException e) {
+                // a failing listener does not stop the others, nor the next poll
+            }
+        }
+        WorkflowApiException apiError = WorkflowApiException.from(error);
+        if (apiError != null && apiError.getErrorCode() == TASK_NOT_EXIST) {
+            registry.fail(taskId, apiError);
+            return;
+        }
+        if (registry.getNextPoll(taskId) == TaskRegistry.POLLING) {
+            reschedule(taskId, backedOff(registry.getInterval(taskId)));
+        }
+    }
+
+    private long backedOff(long interval) {
+        long current = Math.max(config.getMinIntervalMillis(), interval);
+        return Math.min(config.getMaxIntervalMillis(), (long) (current * config.getBackoffFactor()));
+    }
+
+    private long jittered(long interval) {
+        double spread = config.getJitter();
+        if (spread <= 0) {
+            return interval;
+        }
+        return (long) (interval * (1 + ThreadLocalRandom.current().nextDouble(-spread, spread)));
+    }
+
+    private void reschedule(long taskId, long interval) {
+        registry.schedule(taskId, System.currentTimeMillis() + jittered(interval), (int) interval);
+    }
+}
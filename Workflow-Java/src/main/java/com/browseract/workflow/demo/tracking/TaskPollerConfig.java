@@ -0,0 +1,101 @@
+package com.browseract.workflow.demo.tracking;
+
+/**
+ * Settings of a {@link TaskPoller}.
+ */
+public class TaskPollerConfig {
+
+    /**
+     * Poll interval right after a task is tracked or changed status.
+     */
+    private long minIntervalMillis = 1_000;
+
+    /**
+     * Upper bound of the interval of a task whose status does not change.
+     */
+    private long maxIntervalMillis = 60_000;
+
+    /**
+     * Factor applied to the interval after each poll that saw no change.
+     */
+    private double backoffFactor = 1.5;
+
+    /**
+     * Random spread applied to each interval, 0.2 means plus or minus 20%.
+     */
+    private double jitter = 0.2;
+
+    /**
+     * Resolution of the scheduler.
+     */
+    private long tickMillis = 100;
+
+    /**
+     * Maximum number of get-task-status calls per second. Due polls over the budget are deferred
+     * to the next ticks, so bursts are spread evenly over time.
+     */
+    private int maxPollsPerSecond = 100;
+
+    /**
+     * Registry of the tracked tasks, shared with the other components that follow them. When null,
+     * the poller creates its own.
+     */
+    private TaskRegistry registry;
+
+    // Getters and Setters
+    public long getMinIntervalMillis() {
+        return minIntervalMillis;
+    }
+
+    public void setMinIntervalMillis(long minIntervalMillis) {
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    public long getMaxIntervalMillis() {
+        return maxIntervalMillis;
+    }
+
+    public void setMaxIntervalMillis(long maxIntervalMillis) {
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    public double getBackoffFactor() {
+        return backoffFactor;
+    }
+
+    public void setBackoffFactor(double backoffFactor) {
+        this.backoffFactor = backoffFactor;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public int getMaxPollsPerSecond() {
+        return maxPollsPerSecond;
+    }
+
+    public void setMaxPollsPerSecond(int maxPollsPerSecond) {
+        this.maxPollsPerSecond = maxPollsPerSecond;
+    }
+
+    public TaskRegistry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(TaskRegistry registry) {
+        this.registry = registry;
+    }
+}
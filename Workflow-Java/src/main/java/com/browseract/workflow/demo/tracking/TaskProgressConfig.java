@@ -0,0 +1,60 @@
+package com.browseract.workflow.demo.tracking;
+
+/**
+ * Settings of a {@link TaskProgressMonitor}.
+ */
+public class TaskProgressConfig {
+
+    /**
+     * Poll interval right after a task is watched or changed.
+     */
+    private long minIntervalMillis = 1_000;
+
+    /**
+     * Upper bound of the interval of a task that does not change.
+     */
+    private long maxIntervalMillis = 15_000;
+
+    /**
+     * Factor applied to the interval after each poll that saw no change.
+     */
+    private double backoffFactor = 1.5;
+
+    /**
+     * Random spread applied to each interval, 0.2 means plus or minus 20%.
+     */
+    private double jitter = 0.2;
+
+    // Getters and Setters
+    public long getMinIntervalMillis() {
+        return minIntervalMillis;
+    }
+
+    public void setMinIntervalMillis(long minIntervalMillis) {
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    public long getMaxIntervalMillis() {
+        return maxIntervalMillis;
+    }
+
+    public void setMaxIntervalMillis(long maxIntervalMillis) {
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    public double getBackoffFactor() {
+        return backoffFactor;
+    }
+
+    public void setBackoffFactor(double backoffFactor) {
+        this.backoffFactor = backoffFactor;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
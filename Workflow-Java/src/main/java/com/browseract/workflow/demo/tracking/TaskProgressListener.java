@@ -0,0 +1,19 @@
+package com.browseract.workflow.demo.tracking;
+
+/**
+ * Receives the progress of the tasks watched by a {@link TaskProgressMonitor}.
+ * Callbacks of one task are made one at a time, on the thread that read its answer, and should return quickly.
+ */
+public interface TaskProgressListener {
+
+    /**
+     * Called for each change, in order: the new and changed steps by position, then the output, then the status.
+     */
+    void onEvent(TaskEvent event);
+
+    /**
+     * Called when a task could not be fetched. It stays watched unless it does not exist.
+     */
+    default void onError(long taskId, Throwable error) {
+    }
+}
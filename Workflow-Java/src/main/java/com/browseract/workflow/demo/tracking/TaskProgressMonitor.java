@@ -0,0 +1,174 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.client.Futures;
+import com.browseract.workflow.demo.client.WorkflowApiException;
+import com.browseract.workflow.demo.client.WorkflowClient;
+import com.browseract.workflow.demo.model.TaskState;
+import com.browseract.workflow.demo.util.Threads;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows the progress of running tasks step by step, as a stream of {@link TaskEvent}s per task.
+ * <p>
+ * Each watched task is polled with get-task, and its answer is read as a stream that only decodes the steps not
+ * settled yet, keyed by step ID; a step is settled once it has a status and a later step exists. Only the new
+ * and changed steps, the output and the status changes become events, so following many long tasks costs CPU
+ * and memory in proportion to their new steps rather than to their history. A task is polled again sooner after
+ * a change and less often while it does not change, and stops being polled once terminal.
+ * <pre>
+ * try (TaskProgressMonitor monitor = new TaskProgressMonitor(client)) {
+ *     monitor.watch(taskId, event -&gt; System.out.println(event)).join();
+ * }
+ * </pre>
+ */
+public class TaskProgressMonitor implements Closeable {
+
+    private final WorkflowClient client;
+    private final TaskProgressConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, Watch> watches = new ConcurrentHashMap<>();
+
+    private final LongAdder decodedSteps = new LongAdder();
+    private final LongAdder skippedSteps = new LongAdder();
+
+    public TaskProgressMonitor(WorkflowClient client) {
+        this(client, new TaskProgressConfig());
+    }
+
+    public TaskProgressMonitor(WorkflowClient client, TaskProgressConfig config) {
+        this.client = client;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Threads.daemonThreads("task-progress"));
+    }
+
+    /**
+     * Start following a task. Its steps so far are reported first, as new steps.
+     *
+     * @return a future completed with the terminal state of the task, or failed if the task does not exist
+     * @throws IllegalStateException if the task is already watched
+     */
+    public CompletableFuture<TaskState> watch(long taskId, TaskProgressListener listener) {
+        Watch watch = new Watch(taskId, listener);
+        if (watches.putIfAbsent(taskId, watch) != null) {
+            throw new IllegalStateException("task " + taskId + " is already watched");
+        }
+        scheduler.execute(() -> poll(watch));
+        return watch.finished;
+    }
+
+    /**
+     * Stop following a task. Its future is left uncompleted.
+     */
+    public boolean unwatch(long taskId) {
+        return watches.remove(taskId) != null;
+    }
+
+    public int getWatched() {
+        return watches.size();
+    }
+
+    /**
+     * Returns the number of steps decoded from the answers, new, changed or still open.
+     */
+    public long getDecodedSteps() {
+        return decodedSteps.sum();
+    }
+
+    /**
+     * Returns the number of settled steps skipped in the answers without being decoded.
+     */
+    public long getSkippedSteps() {
+        return skippedSteps.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void poll(Watch watch) {
+        if (watches.get(watch.taskId) != watch) {
+            return;
+        }
+        client.getTask(watch.taskId, response -> TaskDeltaReader.read(response.getBody(), watch.progress))
+                .whenComplete((delta, error) -> onAnswer(watch, delta, error));
+    }
+
+    private void onAnswer(Watch watch, TaskDeltaReader.Delta delta, Throwable error) {
+        if (watches.get(watch.taskId) != watch) {
+            return;
+        }
+        if (error != null) {
+            try {
+                watch.listener.onError(watch.taskId, Futures.unwrap(error));
+            } catch (RuntimeException e) {
+                // a failing listener does not stop the polling
+            }
+            WorkflowApiException apiError = WorkflowApiException.from(error);
+            if (apiError != null && apiError.getErrorCode() == TaskPoller.TASK_NOT_EXIST) {
+                watches.remove(watch.taskId, watch);
+                watch.finished.completeExceptionally(apiError);
+                return;
+            }
+            schedule(watch, false);
+            return;
+        }
+        decodedSteps.add(delta.getDecoded());
+        skippedSteps.add(delta.getSkipped());
+        List<TaskEvent> events = watch.progress.apply(watch.taskId, delta);
+        for (TaskEvent event : events) {
+            try {
+                watch.listener.onEvent(event);
+            } catch (RuntimeException e) {
+                // a failing listener does not stop the polling
+            }
+        }
+        TaskState state = watch.progress.getState();
+        if (state.isTerminal()) {
+            watches.remove(watch.taskId, watch);
+            watch.finished.complete(state);
+            return;
+        }
+        schedule(watch, !events.isEmpty());
+    }
+
+    private void schedule(Watch watch, boolean changed) {
+        watch.intervalMillis = changed
+                ? config.getMinIntervalMillis()
+                : Math.min(config.getMaxIntervalMillis(), (long) (watch.intervalMillis * config.getBackoffFactor()));
+        double spread = config.getJitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        long delay = Math.max(1, (long) (watch.intervalMillis * (1 + spread)));
+        try {
+            scheduler.schedule(() -> poll(watch), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    /**
+     * One watched task. Its polls never overlap, so its progress is only used by one thread at a time.
+     */
+    private final class Watch {
+        final long taskId;
+        final TaskProgressListener listener;
+        final TaskDeltaReader.Progress progress = new TaskDeltaReader.Progress();
+        final CompletableFuture<TaskState> finished = new CompletableFuture<>();
+        long intervalMillis = config.getMinIntervalMillis();
+
+        Watch(long taskId, TaskProgressListener listener) {
+            this.taskId = taskId;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.model.TaskState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The tasks in flight and their last known state, shared by the {@link TaskPoller}, the
+ * {@link com.browseract.workflow.demo.callback.CallbackServer} and the
+ * {@link com.browseract.workflow.demo.bulk.BulkSubmitter}.
+ * <p>
+ * Task IDs are kept in primitive open-addressing hash tables, split in stripes with a lock each, and the state
+ * of a task is a few parallel array slots: its status byte, last and next poll times and poll interval. No
+ * object is created per task, so hundreds of thousands of tasks take a few tens of bytes each; only the tasks
+ * awaited with {@link #track(long, TaskState)} also hold a future, in a separate map.
+ * <p>
+ * A task leaves the registry when it reaches a terminal state. Listeners hear of every state change, whichever
+ * component observed it.
+ */
+public class TaskRegistry {
+
+    /**
+     * Next poll time of a task whose status is being fetched.
+     */
+    static final long POLLING = Long.MAX_VALUE;
+
+    private static final TaskState[] STATES = TaskState.values();
+    private static final int STRIPES = 32;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final List<TaskStatusListener> listeners = new CopyOnWriteArrayList<>();
+    // updated under the lock of the stripe of the task
+    private final Map<Long, CompletableFuture<TaskState>> waiters = new ConcurrentHashMap<>();
+    private volatile int cursor;
+
+    public TaskRegistry() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedTasks the number of tasks in flight at once the tables are first sized for
+     */
+    public TaskRegistry(int expectedTasks) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedTasks / STRIPES) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public void addListener(TaskStatusListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TaskStatusListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Add a task, due for a poll now.
+     *
+     * @return false if the task was already registered, its state is then left as is
+     */
+    public boolean register(long taskId, TaskState state) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            return stripe.insert(taskId, state) >= 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Register a task unless it already is, and return a future completed with its terminal state, or
+     * exceptionally by {@link #fail(long, Throwable)}.
+     */
+    public CompletableFuture<TaskState> track(long taskId, TaskState state) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            stripe.insert(taskId, state);
+            return waiters.computeIfAbsent(taskId, id -> new CompletableFuture<>());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a task without completing its future.
+     */
+    public boolean remove(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            if (slot < 0) {
+                return false;
+            }
+            stripe.delete(slot);
+            waiters.remove(taskId);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Record a state observed elsewhere than by a poll, e.g. in a callback or a run-task answer.
+     * A poll in flight for the task is superseded and the task is polled again after its interval.
+     *
+     * @return the previous state, or null if the task is not registered
+     */
+    public TaskState update(long taskId, TaskState state) {
+        return apply(taskId, state, false);
+    }
+
+    /**
+     * Record the state returned by a poll started with {@link #pollDue(long, long[], int)}.
+     *
+     * @return the previous state, or null if the task is no longer registered or something else
+     * rescheduled it while the poll was in flight
+     */
+    TaskState completePoll(long taskId, TaskState state) {
+        return apply(taskId, state, true);
+    }
+
+    /**
+     * Remove a task that cannot complete, e.g. one the API does not know, and fail its future.
+     */
+    public void fail(long taskId, Throwable error) {
+        CompletableFuture<TaskState> waiter = null;
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            if (slot >= 0) {
+                waiter = waiters.remove(taskId);
+                stripe.delete(slot);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (waiter != null) {
+            waiter.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Set when a task is polled next and the interval that led to it.
+     *
+     * @return false if the task is not registered
+     */
+    public boolean schedule(long taskId, long nextPollMillis, int intervalMillis) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            if (slot < 0) {
+                return false;
+            }
+            stripe.nextPolls[slot] = nextPollMillis;
+            stripe.intervals[slot] = intervalMillis;
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Take up to max tasks whose next poll is due, marking them as being polled.
+     * Successive calls resume where the previous one stopped, at the stripe and the slot within it,
+     * so no task waits behind the others.
+     *
+     * @return the number of task IDs written to out
+     */
+    int pollDue(long now, long[] out, int max) {
+        int count = 0;
+        int first = cursor;
+        for (int i = 0; i < STRIPES && count < max; i++) {
+            int index = (first + i) & (STRIPES - 1);
+            Stripe stripe = stripes[index];
+            boolean stopped;
+            stripe.lock.lock();
+            try {
+                int slot = stripe.scanFrom;
+                for (; slot < stripe.keys.length && count < max; slot++) {
+                    if (stripe.keys[slot] != 0 && stripe.nextPolls[slot] <= now) {
+                        stripe.nextPolls[slot] = POLLING;
+                        stripe.lastPolls[slot] = now;
+                        out[count++] = stripe.keys[slot];
+                    }
+                }
+                // a stripe is scanned to its end before the next one, even over several calls
+                stopped = slot < stripe.keys.length;
+                stripe.scanFrom = stopped ? slot : 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+            cursor = stopped ? index : index + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the last known state of a task, or null if it is not registered.
+     */
+    public TaskState getState(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            return slot < 0 ? null : STATES[stripe.states[slot]];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns when the status of a task was last fetched, or 0 if it never was or the task is not registered.
+     */
+    public long getLastPoll(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            return slot < 0 ? 0 : stripe.lastPolls[slot];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns when a task is due for its next poll, {@code Long.MAX_VALUE} while a poll is in flight,
+     * or -1 if the task is not registered.
+     */
+    public long getNextPoll(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            return slot < 0 ? -1 : stripe.nextPolls[slot];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current poll interval of a task, 0 before its first poll or if it is not registered.
+     */
+    public int getInterval(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            return slot < 0 ? 0 : stripe.intervals[slot];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public boolean contains(long taskId) {
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            return stripe.find(taskId) >= 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private TaskState apply(long taskId, TaskState state, boolean polled) {
+        TaskState previous;
+        CompletableFuture<TaskState> waiter = null;
+        Stripe stripe = stripeOf(taskId);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(taskId);
+            if (slot < 0 || polled && stripe.nextPolls[slot] != POLLING) {
+                return null;
+            }
+            previous = STATES[stripe.states[slot]];
+            if (state == previous || state == TaskState.UNKNOWN) {
+                return previous;
+            }
+            if (state.isTerminal()) {
+                waiter = waiters.remove(taskId);
+                stripe.delete(slot);
+            } else {
+                stripe.states[slot] = (byte) state.ordinal();
+                if (!polled && stripe.nextPolls[slot] == POLLING) {
+                    // the answer of the poll in flight may predate this state
+                    stripe.nextPolls[slot] = System.currentTimeMillis() + stripe.intervals[slot];
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        for (TaskStatusListener listener : listeners) {
+            try {
+                listener.onStatusChange(taskId, previous, state);
+            } catch (RuntimeException e) {
+                // a failing listener does not stop the others, nor the waiter and the next poll
+            }
+        }
+        if (waiter != null) {
+            waiter.complete(state);
+        }
+        return previous;
+    }
+
+    private Stripe stripeOf(long taskId) {
+        if (taskId == 0) {
+            throw new IllegalArgumentException("task id 0");
+        }
+        return stripes[(int) (mix(taskId) >>> 59)];
+    }
+
+    /**
+     * Spreads the bits of the ID, whose low digits follow the creation order.
+     */
+    static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * One open-addressing table with linear probing. Key 0 marks a free slot. Guarded by its lock.
+     */
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        long[] keys;
+        byte[] states;
+        long[] lastPolls;
+        long[] nextPolls;
+        int[] intervals;
+        int size;
+        // slot where the next scan for due tasks goes on, tables only grow so it stays in range
+        int scanFrom;
+
+        Stripe(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            states = new byte[capacity];
+            lastPolls = new long[capacity];
+            nextPolls = new long[capacity];
+            intervals = new int[capacity];
+        }
+
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int slot = (int) mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long current = keys[slot];
+                if (current == key) {
+                    return slot;
+                }
+                if (current == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Returns the slot of the new entry, or -(slot + 1) if the key was already present.
+         */
+        int insert(long key, TaskState state) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    return -slot - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            states[slot] = (byte) state.ordinal();
+            lastPolls[slot] = 0;
+            nextPolls[slot] = 0;
+            intervals[slot] = 0;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Free a slot and shift back the entries of its probe run, so that lookups need no tombstones.
+         */
+        void delete(int slot) {
+            int mask = keys.length - 1;
+            int free = slot;
+            for (int next = (free + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = (int) mix(keys[next]) & mask;
+                // move the entry back unless its home lies cyclically in (free, next]
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    move(next, free);
+                    free = next;
+                }
+            }
+            keys[free] = 0;
+            size--;
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            states[to] = states[from];
+            lastPolls[to] = lastPolls[from];
+            nextPolls[to] = nextPolls[from];
+            intervals[to] = intervals[from];
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            byte[] oldStates = states;
+            long[] oldLastPolls = lastPolls;
+            long[] oldNextPolls = nextPolls;
+            int[] oldIntervals = intervals;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) {
+                    continue;
+                }
+                int slot = (int) mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                states[slot] = oldStates[i];
+                lastPolls[slot] = oldLastPolls[i];
+                nextPolls[slot] = oldNextPolls[i];
+                intervals[slot] = oldIntervals[i];
+            }
+        }
+    }
+}
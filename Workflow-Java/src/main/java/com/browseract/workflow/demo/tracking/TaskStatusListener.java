@@ -0,0 +1,23 @@
+package com.browseract.workflow.demo.tracking;
+
+import com.browseract.workflow.demo.model.TaskState;
+
+/**
+ * Receives the status transitions of tracked tasks.
+ * Callbacks run on the thread that observed the transition and should return quickly.
+ */
+public interface TaskStatusListener {
+
+    /**
+     * Called once per observed transition, e.g. running to paused or running to finished.
+     *
+     * @param previous the last known state, {@link TaskState#UNKNOWN} before the first observation
+     */
+    void onStatusChange(long taskId, TaskState previous, TaskState current);
+
+    /**
+     * Called when the status of a task could not be fetched. The task stays tracked unless it does not exist.
+     */
+    default void onError(long taskId, Throwable error) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.browseract.workflow.demo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The pluggable transport used by {@link HttpUtil} to execute requests.
+ * <p>
+ * Implementations are expected to be thread safe and shared: a single instance
+ * is meant to serve every call of the process so that connections, TLS sessions
+ * and dispatcher threads are reused.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Execute the request and hand the response to the handler.
+     * The response body is only valid inside {@link ResponseHandler#handle(Response)}
+     * and is closed by the transport once the handler returns.
+     */
+    <T> T execute(HttpRequest request, ResponseHandler<T> handler) throws IOException;
+
+    /**
+     * Execute the request without blocking the caller.
+     * The handler runs on a transport thread and its result (or failure) completes the returned future.
+     * Cancelling the future cancels the call when the transport supports it.
+     */
+    <T> CompletableFuture<T> executeAsync(HttpRequest request, ResponseHandler<T> handler);
+
+    /**
+     * Callback that consumes a response while its body is still open.
+     */
+    interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    /**
+     * A response whose body is streamed from the underlying connection.
+     */
+    interface Response {
+        int getCode();
+
+        /**
+         * Returns the value of the response header, or null if it is absent.
+         */
+        String getHeader(String name);
+
+        /**
+         * Returns the body length announced by the server, or -1 if unknown.
+         */
+        long getContentLength();
+
+        InputStream getBody();
+    }
+
+    /**
+     * An immutable request description.
+     */
+    class HttpRequest {
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final String contentType;
+
+        public HttpRequest(String method, String url, Map<String, String> headers) {
+            this(method, url, headers, null, null);
+        }
+
+        public HttpRequest(String method, String url, Map<String, String> headers, byte[] body, String contentType) {
+            this.method = method;
+            this.url = url;
+            this.headers = headers;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.browseract.workflow.demo.util;
+
+/**
+ * Settings of the shared HTTP client created by {@link OkHttpTransport}.
+ * <p>
+ * The defaults are tuned for a single API host receiving a high call rate:
+ * connections are kept alive and reused, and HTTP/2 is negotiated when the
+ * server supports it so that concurrent calls share one TLS connection.
+ */
+public class HttpTransportConfig {
+
+    /**
+     * Maximum time to establish a TCP (and TLS) connection.
+     */
+    private long connectTimeoutMillis = 10_000;
+
+    /**
+     * Maximum time between two reads of the response.
+     */
+    private long readTimeoutMillis = 30_000;
+
+    /**
+     * Maximum time between two writes of the request.
+     */
+    private long writeTimeoutMillis = 30_000;
+
+    /**
+     * Maximum time of a whole call, including redirects and retries. 0 disables it.
+     */
+    private long callTimeoutMillis = 60_000;
+
+    /**
+     * Number of idle connections kept in the pool.
+     */
+    private int maxIdleConnections = 32;
+
+    /**
+     * How long an idle connection is kept in the pool before it is closed.
+     */
+    private long keepAliveMillis = 5 * 60_000;
+
+    /**
+     * Maximum number of asynchronous calls executed concurrently by the dispatcher.
+     */
+    private int maxRequests = 256;
+
+    /**
+     * Maximum number of asynchronous calls executed concurrently against one host.
+     */
+    private int maxRequestsPerHost = 256;
+
+    /**
+     * Whether HTTP/2 may be negotiated. When disabled only HTTP/1.1 is used.
+     */
+    private boolean http2Enabled = true;
+
+    // Getters and Setters
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(long readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public long getWriteTimeoutMillis() {
+        return writeTimeoutMillis;
+    }
+
+    public void setWriteTimeoutMillis(long writeTimeoutMillis) {
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    public long getCallTimeoutMillis() {
+        return callTimeoutMillis;
+    }
+
+    public void setCallTimeoutMillis(long callTimeoutMillis) {
+        this.callTimeoutMillis = callTimeoutMillis;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public void setKeepAliveMillis(long keepAliveMillis) {
+        this.keepAliveMillis = keepAliveMillis;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+}
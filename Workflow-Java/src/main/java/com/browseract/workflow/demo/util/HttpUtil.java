@@ -3,175 +3,114 @@ package com.browseract.workflow.demo.util;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.*;
-import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class HttpUtil {
-    
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    
-    public static HttpResult postJson(String url, Object requestBody, Map<String, String> headers) {
-        try {
-            URL urlObj = URI.create(url).toURL();
-            HttpURLConnection connection = (HttpURLConnection) urlObj.openConnection();
-            
-            // Set request method and headers
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setDoOutput(true);
-            
-            // Add custom headers
-            if (headers != null) {
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    connection.setRequestProperty(entry.getKey(), entry.getValue());
+
+    private static final HttpTransport.ResponseHandler<HttpResult> TEXT_HANDLER = response -> {
+        int responseCode = response.getCode();
+        return new HttpResult(responseCode == 200, responseCode, readText(response.getBody()));
+    };
+
+    // a lock instead of a monitor, so that virtual threads waiting for the first transport do not pin their carrier
+    private static final ReentrantLock TRANSPORT_LOCK = new ReentrantLock();
+    private static volatile HttpTransport transport;
+
+    /**
+     * Returns the transport shared by all calls, creating the default pooled {@link OkHttpTransport} on first use.
+     */
+    public static HttpTransport getTransport() {
+        HttpTransport current = transport;
+        if (current == null) {
+            TRANSPORT_LOCK.lock();
+            try {
+                current = transport;
+                if (current == null) {
+                    current = new OkHttpTransport();
+                    transport = current;
                 }
+            } finally {
+                TRANSPORT_LOCK.unlock();
             }
-            
+        }
+        return current;
+    }
+
+    /**
+     * Replace the shared transport, e.g. with an {@link OkHttpTransport} built from a custom {@link HttpTransportConfig}.
+     * The previous transport is not closed, as calls may still be running on it.
+     */
+    public static void setTransport(HttpTransport httpTransport) {
+        transport = httpTransport;
+    }
+
+    public static HttpResult postJson(String url, Object requestBody, Map<String, String> headers) {
+        try {
             // Convert request body to JSON
-            String jsonData = objectMapper.writeValueAsString(requestBody);
-            
+            byte[] jsonData = objectMapper.writeValueAsBytes(requestBody);
+
             // Send request
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonData.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-            
-            // Get response
-            int responseCode = connection.getResponseCode();
-            
-            if (responseCode == 200) {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(true, responseCode, response.toString());
-                }
-            } else {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getErrorStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(false, responseCode, response.toString());
-                }
-            }
-            
+            return getTransport().execute(
+                    new HttpTransport.HttpRequest("POST", url, headers, jsonData, "application/json"), TEXT_HANDLER);
         } catch (Exception e) {
             return new HttpResult(false, -1, "Error: " + e.getMessage());
         }
     }
-    
+
     public static HttpResult put(String url, Map<String, String> headers) {
         try {
-            URL urlObj = URI.create(url).toURL();
-            HttpURLConnection connection = (HttpURLConnection) urlObj.openConnection();
-            
-            // Set request method and headers
-            connection.setRequestMethod("PUT");
-            
-            // Add custom headers
-            if (headers != null) {
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    connection.setRequestProperty(entry.getKey(), entry.getValue());
-                }
-            }
-            
-            // Get response
-            int responseCode = connection.getResponseCode();
-            
-            if (responseCode == 200) {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(true, responseCode, response.toString());
-                }
-            } else {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getErrorStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(false, responseCode, response.toString());
-                }
-            }
-            
+            return getTransport().execute(new HttpTransport.HttpRequest("PUT", url, headers), TEXT_HANDLER);
         } catch (Exception e) {
             return new HttpResult(false, -1, "Error: " + e.getMessage());
         }
     }
-    
+
     public static HttpResult get(String url, Map<String, String> headers) {
         try {
-            URL urlObj = URI.create(url).toURL();
-            HttpURLConnection connection = (HttpURLConnection) urlObj.openConnection();
-            
-            // Set request method and headers
-            connection.setRequestMethod("GET");
-            
-            // Add custom headers
-            if (headers != null) {
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    connection.setRequestProperty(entry.getKey(), entry.getValue());
-                }
-            }
-            
-            // Get response
-            int responseCode = connection.getResponseCode();
-            
-            if (responseCode == 200) {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(true, responseCode, response.toString());
-                }
-            } else {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(connection.getErrorStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return new HttpResult(false, responseCode, response.toString());
-                }
-            }
-            
+            return getTransport().execute(new HttpTransport.HttpRequest("GET", url, headers), TEXT_HANDLER);
         } catch (Exception e) {
             return new HttpResult(false, -1, "Error: " + e.getMessage());
         }
     }
-    
+
+    private static String readText(InputStream body) throws IOException {
+        if (body == null) {
+            return "";
+        }
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            response.write(buffer, 0, read);
+        }
+        return new String(response.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     public static class HttpResult {
         private final boolean success;
         private final int code;
         private final String text;
-        
+
         public HttpResult(boolean success, int code, String text) {
             this.success = success;
             this.code = code;
             this.text = text;
         }
-        
+
         public boolean isSuccess() {
             return success;
         }
-        
+
         public int getCode() {
             return code;
         }
-        
+
         public String getText() {
             return text;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package com.browseract.workflow.demo.util;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HttpTransport} backed by a shared {@link OkHttpClient}.
+ * <p>
+ * All calls go through one connection pool, so keep-alive connections and TLS sessions
+ * are reused between calls instead of paying a full handshake per request.
+ */
+public class OkHttpTransport implements HttpTransport {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final OkHttpClient client;
+
+    public OkHttpTransport() {
+        this(new HttpTransportConfig());
+    }
+
+    public OkHttpTransport(HttpTransportConfig config) {
+        this(newClient(config));
+    }
+
+    /**
+     * Wrap an existing client, e.g. one that carries custom interceptors or proxy settings.
+     */
+    public OkHttpTransport(OkHttpClient client) {
+        this.client = client;
+    }
+
+    public static OkHttpClient newClient(HttpTransportConfig config) {
+        // OkHttp blocks a dispatcher thread per running asynchronous call, a virtual one on Java 21
+        Dispatcher dispatcher = new Dispatcher(Threads.newBlockingExecutor("okhttp-dispatcher"));
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveMillis(), TimeUnit.MILLISECONDS))
+                .protocols(config.isHttp2Enabled()
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .connectTimeout(config.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .callTimeout(config.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public <T> T execute(HttpRequest request, ResponseHandler<T> handler) throws IOException {
+        try (okhttp3.Response response = client.newCall(toOkHttpRequest(request)).execute()) {
+            return handler.handle(new OkHttpResponse(response));
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(HttpRequest request, ResponseHandler<T> handler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = client.newCall(toOkHttpRequest(request));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, okhttp3.Response response) {
+                try (okhttp3.Response closeable = response) {
+                    future.complete(handler.handle(new OkHttpResponse(closeable)));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    static Request toOkHttpRequest(HttpRequest request) {
+        Request.Builder builder = new Request.Builder().url(request.getUrl());
+
+        // Add custom headers
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                builder.header(entry.getKey(), entry.getValue());
+            }
+        }
+
+        RequestBody body = null;
+        if (request.getBody() != null) {
+            MediaType mediaType = request.getContentType() == null ? null : MediaType.parse(request.getContentType());
+            body = RequestBody.create(request.getBody(), mediaType);
+        } else if (requiresBody(request.getMethod())) {
+            // OkHttp refuses a PUT or POST without a body, the API expects an empty one
+            body = RequestBody.create(EMPTY_BODY, null);
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private static boolean requiresBody(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
+    }
+
+    static class OkHttpResponse implements Response {
+        private final okhttp3.Response response;
+
+        OkHttpResponse(okhttp3.Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getCode() {
+            return response.code();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public long getContentLength() {
+            ResponseBody body = response.body();
+            return body == null ? -1 : body.contentLength();
+        }
+
+        @Override
+        public InputStream getBody() {
+            ResponseBody body = response.body();
+            return body == null ? null : body.byteStream();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.browseract.workflow.demo.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads that run blocking work: transport calls, callback handlers and the like.
+ * <p>
+ * This is the Java 8 version, on platform threads. The jar is multi-release: on Java 21 and later the JVM loads
+ * the version in {@code META-INF/versions/21} instead, which runs the same work on virtual threads, so tens of
+ * thousands of blocked calls cost no more than their stacks.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Whether blocking work runs on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Daemon platform threads named {@code name-1}, {@code name-2}..., for timers and other long-lived loops.
+     */
+    public static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns an unbounded executor for blocking tasks: a cached pool of daemon threads, or one virtual thread
+     * per task on Java 21.
+     */
+    public static ExecutorService newBlockingExecutor(String name) {
+        return Executors.newCachedThreadPool(daemonThreads(name));
+    }
+
+    /**
+     * Returns an executor running at most {@code threads} tasks at once with up to {@code queueCapacity} more
+     * waiting, which rejects further tasks with a {@link java.util.concurrent.RejectedExecutionException}.
+     * On Java 21 the waiting tasks start at once on virtual threads instead of queueing.
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), daemonThreads(name));
+    }
+}
@@ -0,0 +1,130 @@
+package com.browseract.workflow.demo.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link HttpTransport} built on the JDK {@link HttpURLConnection}, without any third party dependency.
+ * <p>
+ * Connection reuse is left to the JDK keep-alive cache, so prefer {@link OkHttpTransport}
+ * when the call rate is high.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * Runs asynchronous calls, as HttpURLConnection can only block. On Java 21, one virtual thread per call.
+     */
+    private final ExecutorService executor = Threads.newBlockingExecutor("url-connection-transport");
+
+    public UrlConnectionTransport() {
+        this(new HttpTransportConfig());
+    }
+
+    public UrlConnectionTransport(HttpTransportConfig config) {
+        this.connectTimeoutMillis = (int) config.getConnectTimeoutMillis();
+        this.readTimeoutMillis = (int) config.getReadTimeoutMillis();
+    }
+
+    @Override
+    public <T> T execute(HttpRequest request, ResponseHandler<T> handler) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(request.getUrl()).toURL().openConnection();
+        try {
+            // Set request method and headers
+            connection.setRequestMethod(request.getMethod());
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            if (request.getContentType() != null) {
+                connection.setRequestProperty("Content-Type", request.getContentType());
+            }
+
+            // Add custom headers
+            if (request.getHeaders() != null) {
+                for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                    connection.setRequestProperty(entry.getKey(), entry.getValue());
+                }
+            }
+
+            // Send request
+            if (request.getBody() != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(request.getBody().length);
+                try (OutputStream os = connection.getOutputStream()) {
+                    os.write(request.getBody());
+                }
+            }
+
+            // Get response
+            int responseCode = connection.getResponseCode();
+            InputStream body = responseCode < 400 ? connection.getInputStream() : connection.getErrorStream();
+            try {
+                return handler.handle(new UrlConnectionResponse(connection, responseCode, body));
+            } finally {
+                if (body != null) {
+                    // closing (instead of disconnecting) hands the connection back to the keep-alive cache
+                    body.close();
+                }
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(HttpRequest request, ResponseHandler<T> handler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request, handler);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    static class UrlConnectionResponse implements Response {
+        private final HttpURLConnection connection;
+        private final int code;
+        private final InputStream body;
+
+        UrlConnectionResponse(HttpURLConnection connection, int code, InputStream body) {
+            this.connection = connection;
+            this.code = code;
+            this.body = body;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public long getContentLength() {
+            return connection.getContentLengthLong();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.browseract.workflow.demo.util;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads that run blocking work: transport calls, callback handlers and the like.
+ * <p>
+ * This is the Java 21 version of the multi-release jar: blocking work runs on virtual threads, one per task,
+ * which unmount from their carrier while they wait on I/O.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * Whether blocking work runs on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Daemon platform threads named {@code name-1}, {@code name-2}..., for timers and other long-lived loops.
+     */
+    public static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns an unbounded executor for blocking tasks, one virtual thread per task.
+     */
+    public static ExecutorService newBlockingExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+    /**
+     * Returns an executor running at most {@code threads + queueCapacity} tasks at once, each on its own virtual
+     * thread, which rejects further tasks with a {@link RejectedExecutionException}.
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads, int queueCapacity) {
+        return new BoundedExecutor(newBlockingExecutor(name), threads + queueCapacity);
+    }
+
+    private static final class BoundedExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutor(ExecutorService delegate, int maxRunning) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxRunning);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("too many tasks running");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
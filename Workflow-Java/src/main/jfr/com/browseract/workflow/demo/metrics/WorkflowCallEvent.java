@@ -0,0 +1,87 @@
+package com.browseract.workflow.demo.metrics;
+
+import com.browseract.workflow.demo.client.Endpoint;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one workflow API call, committed by {@link ClientMetrics} through its {@link Sink}.
+ * Only loaded once Flight Recorder is known to be available.
+ */
+@Name("com.browseract.WorkflowCall")
+@Label("Workflow API Call")
+@Category({"BrowserAct", "Workflow API"})
+@Description("A call to the workflow API, with the time spent in each phase")
+class WorkflowCallEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(WorkflowCallEvent.class);
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status of the answer, 0 if the call failed without one")
+    int status;
+
+    @Label("Queue Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueTime;
+
+    @Label("Time to Headers")
+    @Timespan(Timespan.NANOSECONDS)
+    long headersTime;
+
+    @Label("Decode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long decodeTime;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    static void commit(Endpoint endpoint, int status, long queueNanos, long headersNanos, long decodeNanos,
+                       long bytesOut, long bytesIn) {
+        // the event is only built while a recording enables it
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        WorkflowCallEvent event = new WorkflowCallEvent();
+        event.endpoint = endpoint.getPath();
+        event.status = status;
+        event.queueTime = queueNanos;
+        event.headersTime = headersNanos;
+        event.decodeTime = decodeNanos;
+        event.bytesOut = bytesOut;
+        event.bytesIn = bytesIn;
+        event.commit();
+    }
+
+    /**
+     * Created by {@link ClientMetrics} by reflection, so that its own classes need no {@code jdk.jfr}.
+     */
+    static final class Sink implements CallEventSink {
+
+        Sink() {
+            if (!FlightRecorder.isAvailable()) {
+                throw new IllegalStateException("Flight Recorder is not available");
+            }
+        }
+
+        @Override
+        public void commit(Endpoint endpoint, int status, long queueNanos, long headersNanos, long decodeNanos,
+                           long bytesOut, long bytesIn) {
+            WorkflowCallEvent.commit(endpoint, status, queueNanos, headersNanos, decodeNanos, bytesOut, bytesIn);
+        }
+    }
+}